@@ -0,0 +1,55 @@
+package com.swipehelper.floatingswipe;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+
+import com.swipehelper.floatingswipe.core.GestureDispatcher;
+
+// Implementación real: gestos precalculados de GestureCache enviados con dispatchGesture
+@TargetApi(Build.VERSION_CODES.N)
+final class AccessibilityGestureDispatcher implements GestureDispatcher {
+
+    private final AccessibilityService service;
+    private GestureCache gestureCache;
+    private final Handler handler;
+    private Listener listener;
+
+    // Callback único y sin estado para todos los gestos
+    private final AccessibilityService.GestureResultCallback resultCallback =
+            new AccessibilityService.GestureResultCallback() {
+                @Override
+                public void onCompleted(GestureDescription gestureDescription) {
+                    listener.onGestureFinished(true);
+                }
+
+                @Override
+                public void onCancelled(GestureDescription gestureDescription) {
+                    listener.onGestureFinished(false);
+                }
+            };
+
+    AccessibilityGestureDispatcher(AccessibilityService service, GestureCache gestureCache, Handler handler) {
+        this.service = service;
+        this.gestureCache = gestureCache;
+        this.handler = handler;
+    }
+
+    // Caché del perfil activo; llamar desde el hilo de gestos
+    void setGestureCache(GestureCache gestureCache) {
+        this.gestureCache = gestureCache;
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean dispatch(int command, int strokes) {
+        // Los callbacks vuelven al hilo de gestos, no al hilo principal
+        return service.dispatchGesture(gestureCache.get(command, strokes), resultCallback, handler);
+    }
+}
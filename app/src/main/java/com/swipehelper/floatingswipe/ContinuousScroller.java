@@ -0,0 +1,190 @@
+package com.swipehelper.floatingswipe;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.annotation.TargetApi;
+import android.graphics.Path;
+import android.os.Build;
+import android.os.Handler;
+
+import com.swipehelper.floatingswipe.core.SwipeGeometry;
+
+// Scroll continuo mientras se mantiene pulsado un botón (API 26+).
+// Cada arrastre es un solo trazo encadenado con StrokeDescription.continueStroke: se envía un
+// tramo corto y, al completarse, el siguiente continúa desde el mismo punto sin levantar el dedo.
+// Al recorrer la distancia del swipe el dedo se levanta (un elemento avanzado) y, si el botón
+// sigue pulsado, empieza otro arrastre desde el inicio.
+// Los tramos de un arrastre son siempre los mismos para la misma geometría y velocidad: la cadena
+// (cada tramo en versión "continúa" y "levanta") se construye una vez y se reutiliza en cada
+// arrastre; solo se reconstruye si cambian. StrokeDescription copia el Path, así que basta uno.
+// Cualquier otro dispatchGesture cancela el arrastre (y al revés): quien lo usa no debe enviar
+// gestos mientras isActive().
+// No es thread-safe: se usa desde el hilo de gestos, igual que los callbacks.
+@TargetApi(Build.VERSION_CODES.O)
+final class ContinuousScroller {
+
+    interface Listener {
+        // Un arrastre terminó (el dedo se levantó o se canceló); advanced indica si recorrió lo
+        // suficiente para pasar un elemento
+        void onDragFinished(boolean advanced);
+
+        // El scroll continuo terminó del todo (soltado o cancelado)
+        void onStopped();
+    }
+
+    // Un tramo cada ~3 frames: suficiente para un movimiento suave sin saturar dispatchGesture
+    private static final long SEGMENT_MS = 48;
+
+    private final AccessibilityService service;
+    private final Handler handler;
+    private final Listener listener;
+    private final float[] points = new float[4];
+    private final Path segmentPath = new Path();
+
+    private boolean active;
+    private boolean stopRequested;
+    private float startY;
+    private float currentY;
+    private float distance;
+    private int segmentIndex;
+    private boolean lastSegment;
+
+    // Cadena precalculada: continuing[i] sigue en el tramo i + 1, ending[i] levanta el dedo al
+    // final del tramo i. El último tramo solo tiene versión ending.
+    private GestureDescription[] continuing = new GestureDescription[0];
+    private GestureDescription[] ending = new GestureDescription[0];
+    private float[] segmentEndY = new float[0];
+    private int segmentCount;
+    // Geometría con la que se construyó la cadena
+    private float chainX = Float.NaN;
+    private float chainStartY;
+    private float chainEndY;
+    private float chainSpeed;
+
+    private final AccessibilityService.GestureResultCallback segmentCallback =
+            new AccessibilityService.GestureResultCallback() {
+                @Override
+                public void onCompleted(GestureDescription gestureDescription) {
+                    if (!lastSegment) {
+                        segmentIndex++;
+                        dispatchNextSegment();
+                        return;
+                    }
+                    listener.onDragFinished(Math.abs(currentY - startY) >= distance / 2);
+                    if (stopRequested) {
+                        finish();
+                    } else {
+                        segmentIndex = 0;
+                        currentY = startY;
+                        dispatchNextSegment();
+                    }
+                }
+
+                @Override
+                public void onCancelled(GestureDescription gestureDescription) {
+                    // Cancelado (p. ej. toque real del usuario): no se puede continuar el trazo
+                    listener.onDragFinished(false);
+                    finish();
+                }
+            };
+
+    ContinuousScroller(AccessibilityService service, Handler handler, Listener listener) {
+        this.service = service;
+        this.handler = handler;
+        this.listener = listener;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    // Devuelve false si no se pudo enviar el primer tramo. El arrastre se recorta a la pantalla
+    // (width x height), igual que los gestos de GestureCache.
+    boolean start(int command, float centerX, float centerY, float distance, float speedPxPerSecond,
+                  float width, float height) {
+        SwipeGeometry.computeSwipe(command, centerX, centerY, distance, points);
+        SwipeGeometry.clampToDisplay(points, 2, width, height);
+        float x = points[SwipeGeometry.START_X];
+        this.startY = points[SwipeGeometry.START_Y];
+        float endY = points[SwipeGeometry.END_Y];
+        float speedPxPerMs = speedPxPerSecond / 1000f;
+        if (x != chainX || startY != chainStartY || endY != chainEndY || speedPxPerMs != chainSpeed) {
+            buildChain(x, startY, endY, speedPxPerMs);
+        }
+        this.currentY = startY;
+        // Lo que se recorre de verdad tras el recorte
+        this.distance = Math.abs(endY - startY);
+        this.segmentIndex = 0;
+        this.stopRequested = false;
+        this.active = true;
+        return dispatchNextSegment();
+    }
+
+    // El tramo en curso termina y el siguiente levanta el dedo
+    void stop() {
+        stopRequested = true;
+    }
+
+    private void buildChain(float x, float startY, float endY, float speedPxPerMs) {
+        float step = speedPxPerMs * SEGMENT_MS;
+        float total = Math.abs(endY - startY);
+        float direction = Math.signum(endY - startY);
+        int count = Math.max(1, (int) Math.ceil(total / step));
+        if (count > ending.length) {
+            continuing = new GestureDescription[count];
+            ending = new GestureDescription[count];
+            segmentEndY = new float[count];
+        }
+
+        GestureDescription.StrokeDescription previous = null;
+        float fromY = startY;
+        for (int i = 0; i < count; i++) {
+            float move = Math.min(step, total - step * i);
+            float toY = i == count - 1 ? endY : startY + direction * step * (i + 1);
+            long duration = Math.max(1, Math.round(move / speedPxPerMs));
+            segmentPath.reset();
+            segmentPath.moveTo(x, fromY);
+            segmentPath.lineTo(x, toY);
+
+            ending[i] = new GestureDescription.Builder().addStroke(previous == null
+                    ? new GestureDescription.StrokeDescription(segmentPath, 0, duration, false)
+                    : previous.continueStroke(segmentPath, 0, duration, false)).build();
+            if (i < count - 1) {
+                GestureDescription.StrokeDescription next = previous == null
+                        ? new GestureDescription.StrokeDescription(segmentPath, 0, duration, true)
+                        : previous.continueStroke(segmentPath, 0, duration, true);
+                continuing[i] = new GestureDescription.Builder().addStroke(next).build();
+                previous = next;
+            } else {
+                continuing[i] = null;
+            }
+            segmentEndY[i] = toY;
+            fromY = toY;
+        }
+        segmentCount = count;
+        chainX = x;
+        chainStartY = startY;
+        chainEndY = endY;
+        chainSpeed = speedPxPerMs;
+    }
+
+    private boolean dispatchNextSegment() {
+        lastSegment = stopRequested || segmentIndex == segmentCount - 1;
+        GestureDescription gesture = lastSegment ? ending[segmentIndex] : continuing[segmentIndex];
+        currentY = segmentEndY[segmentIndex];
+        if (!service.dispatchGesture(gesture, segmentCallback, handler)) {
+            listener.onDragFinished(false);
+            finish();
+            return false;
+        }
+        return true;
+    }
+
+    private void finish() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        listener.onStopped();
+    }
+}
@@ -0,0 +1,61 @@
+package com.swipehelper.floatingswipe;
+
+import android.os.Trace;
+
+import com.swipehelper.floatingswipe.core.TraceRing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+// Traza del camino caliente de los swipes: eventos binarios en un TraceRing preasignado
+// (sin strings ni Log.d por toque) y secciones de systrace con nombres constantes.
+// Se vuelca a disco bajo demanda con dumpsys (ver SwipeSimulatorService.dump).
+final class EventTrace {
+
+    static final String SECTION_COMMAND = "SwipeCommand";
+    static final String SECTION_DISPATCH = "SwipeDispatch";
+
+    private static final String FILE_NAME = "events.swt";
+
+    // 4096 eventos x 32 bytes: varios minutos de uso continuo
+    private static final TraceRing RING = new TraceRing(4096);
+
+    private EventTrace() {
+    }
+
+    static void record(int id, long a, long b) {
+        RING.record(id, System.nanoTime(), a, b);
+    }
+
+    // Las secciones deben cerrarse en el mismo hilo en que se abren
+    static void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    static void endSection() {
+        Trace.endSection();
+    }
+
+    static long getRecordedCount() {
+        return RING.getRecordedCount();
+    }
+
+    static int getCapacity() {
+        return RING.getCapacity();
+    }
+
+    // Escribe los eventos del buffer en dir/events.swt y devuelve el fichero
+    static File export(File dir) throws IOException {
+        File file = new File(dir, FILE_NAME);
+        // FileChannel.open(Path) requiere API 26; el stream funciona desde minSdk 24
+        FileChannel channel = new FileOutputStream(file).getChannel();
+        try {
+            RING.writeTo(channel);
+        } finally {
+            channel.close();
+        }
+        return file;
+    }
+}
@@ -6,18 +6,40 @@ import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.app.Service;
 import android.content.Intent;
+import android.content.res.Configuration;
 import android.graphics.PixelFormat;
 import android.os.Build;
+import android.os.Debug;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.DisplayMetrics;
+import android.view.Choreographer;
 import android.view.Gravity;
-import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.view.WindowManager;
 import android.widget.ImageButton;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
 
 import androidx.core.app.NotificationCompat;
 
+import com.swipehelper.floatingswipe.core.FrameStats;
+import com.swipehelper.floatingswipe.core.LatencyHistogram;
+import com.swipehelper.floatingswipe.core.OverlayBounds;
+import com.swipehelper.floatingswipe.core.SwipeCommand;
+import com.swipehelper.floatingswipe.core.SwipeCommandChannel;
+import com.swipehelper.floatingswipe.core.SwipeMetrics;
+import com.swipehelper.floatingswipe.core.StateUsage;
+import com.swipehelper.floatingswipe.core.SwipeSettings;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
 public class FloatingButtonService extends Service {
 
     private WindowManager windowManager;
@@ -26,24 +48,209 @@ public class FloatingButtonService extends Service {
     
     private static final String CHANNEL_ID = "FloatingButtonService";
     private static final int NOTIFICATION_ID = 1;
+    private static final long NOTIFICATION_REFRESH_MS = 5000;
+
+    // El canal sobrevive al servicio: solo se crea una vez por proceso
+    private static boolean notificationChannelReady = false;
+
+    // Acción de la notificación para activar/pausar el avance automático
+    private static final String ACTION_TOGGLE_AUTO_ADVANCE = "com.swipehelper.floatingswipe.TOGGLE_AUTO_ADVANCE";
+    // Avance automático mostrado en la notificación; el estado real está en ServiceStateRepository
+    private boolean notifiedAutoAdvance;
+
+    // Acciones para grabar y reproducir macros de gestos
+    private static final String ACTION_TOGGLE_MACRO_RECORDING = "com.swipehelper.floatingswipe.TOGGLE_MACRO_RECORDING";
+    private static final String ACTION_TOGGLE_MACRO_PLAYBACK = "com.swipehelper.floatingswipe.TOGGLE_MACRO_PLAYBACK";
+    private boolean macroRecording = false;
+
+    // Refresco periódico de la notificación con las métricas de latencia
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private String lastMetricsSummary;
+    private final Runnable refreshNotification = new Runnable() {
+        @Override
+        public void run() {
+            String summary = SwipeMetrics.get().getNotificationSummary();
+            if (summary != null && !summary.equals(lastMetricsSummary)) {
+                NotificationManager manager = getSystemService(NotificationManager.class);
+                manager.notify(NOTIFICATION_ID, createNotification());
+            }
+            handler.postDelayed(this, NOTIFICATION_REFRESH_MS);
+        }
+    };
     
+    // Hibernación: fuera de la app objetivo la ventana del overlay se quita, pero la vista, los
+    // listeners y el servicio en primer plano siguen vivos; volver es solo un addView.
+    // CPU y memoria se miden para todo el proceso (incluye el servicio de accesibilidad).
+    private static final int STATE_VISIBLE = 0;
+    private static final int STATE_HIBERNATED = 1;
+    private final StateUsage stateUsage = new StateUsage("visible", "hibernated");
+    private final LatencyHistogram reattachLatency = new LatencyHistogram("reattach");
+    private boolean overlayAttached = false;
+    private long hibernatedAtNanos;
+    private long reattachStartNanos;
+
+    private final ServiceStateRepository.Listener serviceStateListener = new ServiceStateRepository.Listener() {
+        @Override
+        public void onServiceStateChanged(ServiceStateRepository state) {
+            updateHibernation(state);
+            // El servicio de accesibilidad aplicó (o canceló) el cambio: actualizar el botón
+            if (state.isAutoAdvanceEnabled() != notifiedAutoAdvance) {
+                getSystemService(NotificationManager.class).notify(NOTIFICATION_ID, createNotification());
+            }
+        }
+    };
+
+    // Desde el evento de ventana de la app objetivo hasta el primer frame del overlay
+    private final ViewTreeObserver.OnPreDrawListener reattachFrameListener = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            floatingView.getViewTreeObserver().removeOnPreDrawListener(this);
+            reattachLatency.recordNanos(System.nanoTime() - reattachStartNanos);
+            return true;
+        }
+    };
+
     // Posición de los botones
     private WindowManager.LayoutParams params;
     private boolean isDragging = false;
     private float lastX, lastY;
     private float initialX, initialY;
 
+    // Tamaño de pantalla en caché (se refresca en onConfigurationChanged)
+    private int screenWidth, screenHeight;
+
+    // Arrastre sincronizado con vsync: como mucho un updateViewLayout por frame
+    private static final long SNAP_DURATION_NANOS = 150_000_000L;
+    private Choreographer choreographer;
+    private boolean frameScheduled = false;
+    private boolean layoutDirty = false;
+    private int pendingX, pendingY;
+    private boolean snapping = false;
+    private int snapStartX, snapTargetX;
+    private long snapStartNanos;
+
+    // Posición guardada del overlay; se escribe al terminar cada arrastre.
+    // Con el disparador por teclas el overlay se puede ocultar desde los ajustes.
+    private SettingsStore settingsStore;
+    private final SettingsStore.Listener settingsListener = new SettingsStore.Listener() {
+        @Override
+        public void onSettingsChanged(SwipeSettings settings) {
+            applyOverlayVisibility(settings);
+            applyRenderingMode(settings);
+            restoreOverlayPosition(settings);
+        }
+    };
+
+    // Frames y jank del overlay durante las interacciones; en reposo no debe dibujar
+    private static final long CLICK_FEEDBACK_MS = 100;
+    private final FrameStats overlayFrames = new FrameStats("overlay");
+    private OverlayFrameMonitor frameMonitor;
+    private boolean flatRendering;
+
+    // Contadores para comparar eventos de arrastre con actualizaciones reales del layout
+    private long touchMoveCount;
+    private long layoutUpdateCount;
+
+    private final Choreographer.FrameCallback layoutFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            frameScheduled = false;
+
+            if (snapping) {
+                if (snapStartNanos == 0) {
+                    snapStartNanos = frameTimeNanos;
+                }
+                long elapsed = frameTimeNanos - snapStartNanos;
+                pendingX = OverlayBounds.interpolate(snapStartX, snapTargetX, elapsed, SNAP_DURATION_NANOS);
+                layoutDirty = true;
+                if (elapsed >= SNAP_DURATION_NANOS) {
+                    snapping = false;
+                    settingsStore.setOverlayPosition(snapTargetX, pendingY);
+                } else {
+                    scheduleLayoutFrame();
+                }
+            }
+
+            if (layoutDirty && floatingView != null) {
+                layoutDirty = false;
+                if (params.x != pendingX || params.y != pendingY) {
+                    params.x = pendingX;
+                    params.y = pendingY;
+                    // Hibernado basta con los params: se aplican al volver a añadir la ventana
+                    if (overlayAttached) {
+                        windowManager.updateViewLayout(floatingView, params);
+                        layoutUpdateCount++;
+                    }
+                }
+            }
+        }
+    };
+
+    // Primer frame del overlay: cierra la medición del arranque
+    private boolean startupPending;
+    private final ViewTreeObserver.OnPreDrawListener firstFrameListener = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            floatingView.getViewTreeObserver().removeOnPreDrawListener(this);
+            StartupTrace.finish();
+            startupPending = false;
+            // La hibernación espera al primer frame para no cortar la medida del arranque
+            updateHibernation(ServiceStateRepository.get(FloatingButtonService.this));
+            return true;
+        }
+    };
+
     @Override
     public void onCreate() {
         super.onCreate();
-        createNotificationChannel();
-        windowManager = (WindowManager) getSystemService(WINDOW_SERVICE);
-        createFloatingView();
+        StartupTrace.serviceCreated();
+        StartupTrace.beginSection("FloatingButtonService.onCreate");
+        try {
+            // En la ruta crítica solo lo necesario para mostrar el overlay; el canal de
+            // notificación se crea en onStartCommand
+            windowManager = (WindowManager) getSystemService(WINDOW_SERVICE);
+            choreographer = Choreographer.getInstance();
+            frameMonitor = new OverlayFrameMonitor(choreographer, overlayFrames);
+            updateScreenSize();
+            // No bloquea: hasta que terminen de cargarse los ajustes se usa la posición por defecto
+            settingsStore = SettingsStore.get(this);
+            startupPending = true;
+            createFloatingView();
+            settingsStore.addListener(settingsListener, handler);
+            ServiceStateRepository.get(this).setFloatingServiceRunning(true);
+            ServiceStateRepository.get(this).addListener(serviceStateListener);
+        } finally {
+            StartupTrace.endSection();
+        }
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        startForeground(NOTIFICATION_ID, createNotification());
+        String action = intent != null ? intent.getAction() : null;
+        if (ACTION_TOGGLE_AUTO_ADVANCE.equals(action)) {
+            toggleAutoAdvance();
+        } else if (ACTION_TOGGLE_MACRO_RECORDING.equals(action)) {
+            toggleMacroRecording();
+        } else if (ACTION_TOGGLE_MACRO_PLAYBACK.equals(action)) {
+            // Reproducir detiene también una grabación en curso
+            if (SwipeCommandChannel.get().offer(SwipeCommand.MACRO_PLAY_TOGGLE, System.nanoTime())) {
+                macroRecording = false;
+            }
+        }
+        StartupTrace.beginSection("FloatingButtonService.startForeground");
+        try {
+            createNotificationChannel();
+            startForeground(NOTIFICATION_ID, createNotification());
+        } finally {
+            StartupTrace.endSection();
+        }
+        if (startupPending) {
+            StartupTrace.mark(StartupTrace.FOREGROUND);
+        }
+        handler.removeCallbacks(refreshNotification);
+        if (overlayAttached) {
+            handler.postDelayed(refreshNotification, NOTIFICATION_REFRESH_MS);
+        }
         return START_STICKY;
     }
 
@@ -53,9 +260,10 @@ public class FloatingButtonService extends Service {
     }
 
     private void createFloatingView() {
-        // Crear el layout flotante
-        floatingView = LayoutInflater.from(this).inflate(R.layout.floating_buttons, null);
-        
+        // Crear el layout flotante en código: evita inflar y parsear XML en el arranque
+        floatingView = buildFloatingView();
+        StartupTrace.mark(StartupTrace.VIEW_BUILT);
+
         // Configurar parámetros de la ventana
         int layoutFlag;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
@@ -71,35 +279,148 @@ public class FloatingButtonService extends Service {
                 WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE,
                 PixelFormat.TRANSLUCENT);
 
-        // Posicionar en la esquina inferior derecha
+        // Última posición guardada o, si no hay, la esquina inferior derecha
         params.gravity = Gravity.TOP | Gravity.START;
-        params.x = getScreenWidth() - 200; // Cerca del borde derecho
-        params.y = getScreenHeight() - 300; // Cerca del borde inferior
-
-        // Encontrar los botones
-        btnSwipeUp = floatingView.findViewById(R.id.btnSwipeUp);
-        btnSwipeDown = floatingView.findViewById(R.id.btnSwipeDown);
+        SwipeSettings settings = settingsStore.getSettings();
+        if (settings.hasOverlayPosition()) {
+            params.x = OverlayBounds.clamp(settings.overlayX, screenWidth, 0);
+            params.y = OverlayBounds.clamp(settings.overlayY, screenHeight, 0);
+        } else {
+            params.x = screenWidth - 200; // Cerca del borde derecho
+            params.y = screenHeight - 300; // Cerca del borde inferior
+        }
 
         // Configurar listeners
         setupButtonListeners();
         setupTouchListener();
 
         // Agregar la vista flotante
+        floatingView.getViewTreeObserver().addOnPreDrawListener(firstFrameListener);
+        floatingView.getViewTreeObserver().addOnDrawListener(frameMonitor.drawListener);
         windowManager.addView(floatingView, params);
+        overlayAttached = true;
+        enterUsageState(STATE_VISIBLE);
+        StartupTrace.mark(StartupTrace.WINDOW_ADDED);
+    }
+
+    private void updateHibernation(ServiceStateRepository state) {
+        if (floatingView == null || startupPending) {
+            return;
+        }
+        boolean foreground = state.isTargetForeground();
+        if (foreground && !overlayAttached) {
+            reattachOverlay(state.getTargetForegroundChangedNanos());
+        } else if (!foreground && overlayAttached) {
+            hibernateOverlay();
+        }
+    }
+
+    private void hibernateOverlay() {
+        if (holding) {
+            holding = false;
+            SwipeCommandChannel.get().offer(SwipeCommand.HOLD_STOP, System.nanoTime());
+        }
+        // Terminar el arrastre o la animación al borde en su posición final
+        if (snapping) {
+            snapping = false;
+            pendingX = snapTargetX;
+            layoutDirty = true;
+            settingsStore.setOverlayPosition(snapTargetX, pendingY);
+        }
+        isDragging = false;
+        if (layoutDirty) {
+            params.x = pendingX;
+            params.y = pendingY;
+            layoutDirty = false;
+        }
+        choreographer.removeFrameCallback(layoutFrameCallback);
+        frameScheduled = false;
+        frameMonitor.stop();
+        handler.removeCallbacks(refreshNotification);
+
+        windowManager.removeView(floatingView);
+        overlayAttached = false;
+        hibernatedAtNanos = System.nanoTime();
+        enterUsageState(STATE_HIBERNATED);
+    }
+
+    private void reattachOverlay(long eventNanos) {
+        // Sin un evento posterior a la hibernación (p. ej. se desconectó el servicio de
+        // accesibilidad) la medida empieza ahora
+        reattachStartNanos = eventNanos > hibernatedAtNanos ? eventNanos : System.nanoTime();
+        // Los listeners del árbol de vistas se quedaron en la ventana anterior
+        ViewTreeObserver observer = floatingView.getViewTreeObserver();
+        if (floatingView.getVisibility() == View.VISIBLE) {
+            observer.addOnPreDrawListener(reattachFrameListener);
+        }
+        observer.addOnDrawListener(frameMonitor.drawListener);
+        windowManager.addView(floatingView, params);
+        overlayAttached = true;
+        handler.removeCallbacks(refreshNotification);
+        handler.postDelayed(refreshNotification, NOTIFICATION_REFRESH_MS);
+        enterUsageState(STATE_VISIBLE);
+    }
+
+    private void enterUsageState(int state) {
+        stateUsage.enter(state, SystemClock.elapsedRealtimeNanos(), Process.getElapsedCpuTime(), usedMemoryBytes());
+    }
+
+    // Heap de Java en uso más heap nativo reservado: lectura barata, sin recorrer smaps
+    private static long usedMemoryBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+    }
+
+    // Dos botones circulares en columna sobre un fondo redondeado
+    private View buildFloatingView() {
+        LinearLayout layout = new LinearLayout(this);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.setBackgroundResource(R.drawable.floating_background);
+        int padding = dpToPx(8);
+        layout.setPadding(padding, padding, padding, padding);
+
+        int buttonSize = dpToPx(60);
+        boolean flat = settingsStore.getSettings().flatOverlay;
+        flatRendering = flat;
+        btnSwipeUp = createSwipeButton(R.drawable.ic_arrow_up, "Swipe Up", flat);
+        LinearLayout.LayoutParams upParams = new LinearLayout.LayoutParams(buttonSize, buttonSize);
+        upParams.bottomMargin = dpToPx(8);
+        layout.addView(btnSwipeUp, upParams);
+
+        btnSwipeDown = createSwipeButton(R.drawable.ic_arrow_down, "Swipe Down", flat);
+        layout.addView(btnSwipeDown, new LinearLayout.LayoutParams(buttonSize, buttonSize));
+        return layout;
+    }
+
+    private ImageButton createSwipeButton(int iconRes, String description, boolean flat) {
+        ImageButton button = new ImageButton(this);
+        button.setBackgroundResource(buttonBackground(flat));
+        button.setImageResource(iconRes);
+        button.setScaleType(ImageView.ScaleType.CENTER_INSIDE);
+        button.setContentDescription(description);
+        return button;
+    }
+
+    // En modo plano solo se dibuja el fondo del contenedor y los iconos encima: cada píxel del
+    // overlay se pinta como mucho dos veces en lugar de tres
+    private static int buttonBackground(boolean flat) {
+        return flat ? 0 : R.drawable.button_circular;
+    }
+
+    private int dpToPx(int dp) {
+        return Math.round(dp * getResources().getDisplayMetrics().density);
     }
 
     private void setupButtonListeners() {
+        setupHoldListeners(btnSwipeUp, SwipeCommand.HOLD_UP_START);
+        setupHoldListeners(btnSwipeDown, SwipeCommand.HOLD_DOWN_START);
+
         btnSwipeUp.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
                 // Enviar comando de swipe up al servicio de accesibilidad
-                Intent intent = new Intent("SWIPE_COMMAND");
-                intent.putExtra("direction", "up");
-                sendBroadcast(intent);
-                
-                // Feedback visual
-                v.setAlpha(0.5f);
-                v.animate().alpha(1.0f).setDuration(100);
+                sendSwipeCommand(SwipeCommand.SWIPE_UP);
+                playClickFeedback(v);
             }
         });
 
@@ -107,15 +428,73 @@ public class FloatingButtonService extends Service {
             @Override
             public void onClick(View v) {
                 // Enviar comando de swipe down al servicio de accesibilidad
-                Intent intent = new Intent("SWIPE_COMMAND");
-                intent.putExtra("direction", "down");
-                sendBroadcast(intent);
-                
-                // Feedback visual
-                v.setAlpha(0.5f);
-                v.animate().alpha(1.0f).setDuration(100);
+                sendSwipeCommand(SwipeCommand.SWIPE_DOWN);
+                playClickFeedback(v);
+            }
+        });
+    }
+
+    // Feedback visual. withLayer(): la opacidad se anima sobre una capa hardware y el botón
+    // no se vuelve a dibujar en cada frame de la animación
+    private void playClickFeedback(View v) {
+        frameMonitor.track(CLICK_FEEDBACK_MS * 1_000_000L);
+        v.setAlpha(0.5f);
+        v.animate().alpha(1.0f).setDuration(CLICK_FEEDBACK_MS).withLayer();
+    }
+
+    // Mantener pulsado un botón: scroll continuo hasta soltarlo
+    private boolean holding = false;
+
+    private void setupHoldListeners(final View button, final int holdCommand) {
+        button.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                // Solo por el canal en proceso; consumir el long click evita además el click
+                holding = SwipeCommandChannel.get().offer(holdCommand, System.nanoTime());
+                return true;
             }
         });
+        button.setOnTouchListener(new View.OnTouchListener() {
+            @Override
+            public boolean onTouch(View v, MotionEvent event) {
+                int action = event.getActionMasked();
+                if (holding && (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)) {
+                    holding = false;
+                    SwipeCommandChannel.get().offer(SwipeCommand.HOLD_STOP, System.nanoTime());
+                }
+                // No consumir: el botón sigue gestionando click y long click
+                return false;
+            }
+        });
+    }
+
+    private void sendSwipeCommand(int command) {
+        // Solo por el canal en proceso: se conecta y desconecta con el servicio de accesibilidad,
+        // así que sin canal no hay nadie que pueda ejecutar el swipe (offer lo descarta)
+        SwipeCommandChannel.get().offer(command, System.nanoTime());
+    }
+
+    // El estado cambia cuando SwipeSimulatorService procesa el comando; la notificación se
+    // actualiza con el aviso de ServiceStateRepository
+    private void toggleAutoAdvance() {
+        boolean enable = !ServiceStateRepository.get(this).isAutoAdvanceEnabled();
+        int command = enable ? SwipeCommand.AUTO_ADVANCE_START : SwipeCommand.AUTO_ADVANCE_STOP;
+        // Solo funciona por el canal en proceso: sin servicio de accesibilidad no hay avance
+        SwipeCommandChannel.get().offer(command, System.nanoTime());
+    }
+
+    private void toggleMacroRecording() {
+        boolean start = !macroRecording;
+        int command = start ? SwipeCommand.MACRO_RECORD_START : SwipeCommand.MACRO_RECORD_STOP;
+        if (SwipeCommandChannel.get().offer(command, System.nanoTime())) {
+            macroRecording = start;
+        }
+    }
+
+    private PendingIntent createServiceAction(int requestCode, String action) {
+        Intent intent = new Intent(this, FloatingButtonService.class);
+        intent.setAction(action);
+        return PendingIntent.getService(this, requestCode, intent, PendingIntent.FLAG_IMMUTABLE);
     }
 
     private void setupTouchListener() {
@@ -125,6 +504,9 @@ public class FloatingButtonService extends Service {
                 switch (event.getAction()) {
                     case MotionEvent.ACTION_DOWN:
                         isDragging = false;
+                        // Si el botón se estaba pegando al borde, continuar desde donde está
+                        snapping = false;
+                        layoutDirty = false;
                         initialX = params.x;
                         initialY = params.y;
                         lastX = event.getRawX();
@@ -132,23 +514,27 @@ public class FloatingButtonService extends Service {
                         return true;
 
                     case MotionEvent.ACTION_MOVE:
+                        touchMoveCount++;
                         float deltaX = event.getRawX() - lastX;
                         float deltaY = event.getRawY() - lastY;
                         
                         // Si se mueve más de un umbral, considerarlo como dragging
-                        if (Math.abs(deltaX) > 10 || Math.abs(deltaY) > 10) {
+                        if (OverlayBounds.exceedsDragSlop(deltaX, deltaY)) {
                             isDragging = true;
                         }
                         
                         if (isDragging) {
-                            params.x = (int) (initialX + (event.getRawX() - lastX));
-                            params.y = (int) (initialY + (event.getRawY() - lastY));
+                            int x = (int) (initialX + (event.getRawX() - lastX));
+                            int y = (int) (initialY + (event.getRawY() - lastY));
                             
                             // Mantener dentro de los límites de la pantalla
-                            params.x = Math.max(0, Math.min(params.x, getScreenWidth() - floatingView.getWidth()));
-                            params.y = Math.max(0, Math.min(params.y, getScreenHeight() - floatingView.getHeight()));
+                            pendingX = OverlayBounds.clamp(x, screenWidth, floatingView.getWidth());
+                            pendingY = OverlayBounds.clamp(y, screenHeight, floatingView.getHeight());
                             
-                            windowManager.updateViewLayout(floatingView, params);
+                            // Se aplica en el próximo frame, no en cada evento táctil
+                            frameMonitor.track(0);
+                            layoutDirty = true;
+                            scheduleLayoutFrame();
                         }
                         return true;
 
@@ -167,30 +553,118 @@ public class FloatingButtonService extends Service {
     }
 
     private void snapToEdge() {
-        // Mover el botón al borde más cercano (izquierdo o derecho)
-        int screenWidth = getScreenWidth();
-        int middle = screenWidth / 2;
-        
-        if (params.x < middle) {
-            // Mover al borde izquierdo
-            params.x = 0;
-        } else {
-            // Mover al borde derecho
-            params.x = screenWidth - floatingView.getWidth();
+        // Mover el botón al borde más cercano (izquierdo o derecho), animado frame a frame
+        // Partir de la última posición del arrastre aunque aún no se haya aplicado
+        if (!layoutDirty) {
+            pendingX = params.x;
+            pendingY = params.y;
         }
-        
-        windowManager.updateViewLayout(floatingView, params);
+        snapStartX = pendingX;
+        snapTargetX = OverlayBounds.snapX(pendingX, screenWidth, floatingView.getWidth());
+        snapStartNanos = 0;
+        snapping = true;
+        frameMonitor.track(SNAP_DURATION_NANOS);
+        scheduleLayoutFrame();
     }
 
-    private int getScreenWidth() {
-        return getResources().getDisplayMetrics().widthPixels;
+    // Oculto sigue añadido a la ventana: volver a mostrarlo no repite el arranque
+    private void applyOverlayVisibility(SwipeSettings settings) {
+        if (floatingView == null) {
+            return;
+        }
+        int visibility = settings.isOverlayHidden() ? View.GONE : View.VISIBLE;
+        if (floatingView.getVisibility() != visibility) {
+            frameMonitor.track(0);
+            floatingView.setVisibility(visibility);
+        }
     }
 
-    private int getScreenHeight() {
-        return getResources().getDisplayMetrics().heightPixels;
+    private void applyRenderingMode(SwipeSettings settings) {
+        if (btnSwipeUp == null || settings.flatOverlay == flatRendering) {
+            return;
+        }
+        flatRendering = settings.flatOverlay;
+        frameMonitor.track(0);
+        btnSwipeUp.setBackgroundResource(buttonBackground(flatRendering));
+        btnSwipeDown.setBackgroundResource(buttonBackground(flatRendering));
+    }
+
+    // Aplicar la posición guardada cuando termina la carga (o si cambia desde otro sitio)
+    private void restoreOverlayPosition(SwipeSettings settings) {
+        if (floatingView == null || !settings.hasOverlayPosition() || isDragging || snapping) {
+            return;
+        }
+        int x = OverlayBounds.clamp(settings.overlayX, screenWidth, floatingView.getWidth());
+        int y = OverlayBounds.clamp(settings.overlayY, screenHeight, floatingView.getHeight());
+        if (x != params.x || y != params.y) {
+            pendingX = x;
+            pendingY = y;
+            layoutDirty = true;
+            scheduleLayoutFrame();
+        }
+    }
+
+    private void scheduleLayoutFrame() {
+        if (!frameScheduled) {
+            frameScheduled = true;
+            choreographer.postFrameCallback(layoutFrameCallback);
+        }
+    }
+
+    private void updateScreenSize() {
+        DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
+        screenWidth = displayMetrics.widthPixels;
+        screenHeight = displayMetrics.heightPixels;
+        overlayFrames.setRefreshRate(windowManager.getDefaultDisplay().getRefreshRate());
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // Rotación: refrescar los límites y recolocar el overlay dentro de la pantalla
+        updateScreenSize();
+        if (floatingView != null && !isDragging) {
+            snapping = false;
+            pendingX = OverlayBounds.snapX(OverlayBounds.clamp(params.x, screenWidth, floatingView.getWidth()),
+                    screenWidth, floatingView.getWidth());
+            pendingY = OverlayBounds.clamp(params.y, screenHeight, floatingView.getHeight());
+            layoutDirty = true;
+            scheduleLayoutFrame();
+        }
+    }
+
+    // adb shell dumpsys activity service com.swipehelper.floatingswipe/.FloatingButtonService
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        writer.println("Overlay drag: touchMoves=" + touchMoveCount + " layoutUpdates=" + layoutUpdateCount);
+        StringBuilder line = new StringBuilder("Overlay startup: ");
+        StartupTrace.append(line);
+        writer.println(line);
+        writer.println("Overlay rendering: " + (flatRendering ? "flat" : "layered"));
+        writer.println("Overlay window: attached=" + overlayAttached);
+        line.setLength(0);
+        line.append("  ");
+        reattachLatency.appendSummary(line);
+        line.append("\n  ");
+        stateUsage.appendSummary(line, SystemClock.elapsedRealtimeNanos(), Process.getElapsedCpuTime(),
+                usedMemoryBytes());
+        writer.println(line);
+        line.setLength(0);
+        line.append("  ");
+        overlayFrames.appendSummary(line);
+        writer.println(line);
+        ServiceStateRepository state = ServiceStateRepository.get(this);
+        writer.println("Service state: overlay=" + state.isOverlayGranted()
+                + " accessibilityEnabled=" + state.isAccessibilityEnabled()
+                + " accessibilityConnected=" + state.isAccessibilityConnected()
+                + " settingsReads=" + state.getSettingsReads());
     }
 
     private void createNotificationChannel() {
+        if (notificationChannelReady) {
+            return;
+        }
+        notificationChannelReady = true;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             NotificationChannel serviceChannel = new NotificationChannel(
                     CHANNEL_ID,
@@ -207,11 +681,25 @@ public class FloatingButtonService extends Service {
         PendingIntent pendingIntent = PendingIntent.getActivity(this, 0, notificationIntent, 
                 PendingIntent.FLAG_IMMUTABLE);
 
+        // Mostrar la latencia toque -> swipe completado si ya hay datos
+        String summary = SwipeMetrics.get().getNotificationSummary();
+        lastMetricsSummary = summary;
+        notifiedAutoAdvance = ServiceStateRepository.get(this).isAutoAdvanceEnabled();
+
         return new NotificationCompat.Builder(this, CHANNEL_ID)
                 .setContentTitle("Floating Swipe Helper")
-                .setContentText("Botones flotantes activos")
+                .setContentText(summary != null ? summary : "Botones flotantes activos")
+                .setOnlyAlertOnce(true)
                 .setSmallIcon(R.drawable.ic_launcher_foreground)
                 .setContentIntent(pendingIntent)
+                .addAction(R.drawable.ic_arrow_up,
+                        notifiedAutoAdvance ? "Pausar avance automático" : "Avance automático",
+                        createServiceAction(1, ACTION_TOGGLE_AUTO_ADVANCE))
+                .addAction(R.drawable.ic_arrow_down,
+                        macroRecording ? "Detener grabación" : "Grabar macro",
+                        createServiceAction(2, ACTION_TOGGLE_MACRO_RECORDING))
+                .addAction(R.drawable.ic_arrow_up, "Reproducir macro",
+                        createServiceAction(3, ACTION_TOGGLE_MACRO_PLAYBACK))
                 .setOngoing(true)
                 .build();
     }
@@ -219,8 +707,27 @@ public class FloatingButtonService extends Service {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        if (floatingView != null) {
+        handler.removeCallbacks(refreshNotification);
+        settingsStore.removeListener(settingsListener);
+        ServiceStateRepository.get(this).setFloatingServiceRunning(false);
+        ServiceStateRepository.get(this).removeListener(serviceStateListener);
+        if (ServiceStateRepository.get(this).isAutoAdvanceEnabled()) {
+            SwipeCommandChannel.get().offer(SwipeCommand.AUTO_ADVANCE_STOP, System.nanoTime());
+        }
+        if (macroRecording) {
+            SwipeCommandChannel.get().offer(SwipeCommand.MACRO_RECORD_STOP, System.nanoTime());
+        }
+        if (holding) {
+            SwipeCommandChannel.get().offer(SwipeCommand.HOLD_STOP, System.nanoTime());
+        }
+        choreographer.removeFrameCallback(layoutFrameCallback);
+        frameMonitor.stop();
+        if (floatingView != null && overlayAttached) {
+            floatingView.getViewTreeObserver().removeOnPreDrawListener(firstFrameListener);
+            floatingView.getViewTreeObserver().removeOnPreDrawListener(reattachFrameListener);
+            floatingView.getViewTreeObserver().removeOnDrawListener(frameMonitor.drawListener);
             windowManager.removeView(floatingView);
+            overlayAttached = false;
         }
     }
 }
@@ -0,0 +1,103 @@
+package com.swipehelper.floatingswipe;
+
+import android.accessibilityservice.GestureDescription;
+import android.annotation.TargetApi;
+import android.graphics.Path;
+import android.os.Build;
+
+import com.swipehelper.floatingswipe.core.SwipeCommand;
+import com.swipehelper.floatingswipe.core.StrokeProfile;
+import com.swipehelper.floatingswipe.core.SwipeGeometry;
+
+// Gestos precalculados para cada dirección y número de trazos.
+// Se construyen una vez para la geometría actual (centro, distancia, duración, forma del trazo,
+// trazos máximos, tamaño de pantalla)
+// y solo se reconstruyen si esa geometría cambia; los GestureDescription son inmutables y se pueden
+// reutilizar en cada dispatchGesture.
+@TargetApi(Build.VERSION_CODES.N)
+final class GestureCache {
+
+    // Desvío lateral máximo de StrokeProfile.EASED (px), fijo para la pantalla
+    private final float maxWobble;
+    private int maxStrokes;
+
+    // [0] = swipe up, [1] = swipe down; indice = trazos - 1
+    private GestureDescription[][] gestures;
+
+    private float centerX = Float.NaN;
+    private float centerY = Float.NaN;
+    private float distance;
+    private long duration;
+    private long strokeGap;
+    private int strokeProfile;
+    private float width;
+    private float height;
+    private final float[] points = new float[StrokeProfile.MAX_POINTS * 2];
+
+    GestureCache(float maxWobble) {
+        this.maxWobble = maxWobble;
+    }
+
+    // Devuelve true si hubo que reconstruir los gestos
+    boolean update(float centerX, float centerY, float distance, long duration, long strokeGap,
+                   int strokeProfile, int maxStrokes, float width, float height) {
+        if (centerX == this.centerX && centerY == this.centerY && distance == this.distance
+                && duration == this.duration && strokeGap == this.strokeGap
+                && strokeProfile == this.strokeProfile && maxStrokes == this.maxStrokes
+                && width == this.width && height == this.height) {
+            return false;
+        }
+        if (maxStrokes != this.maxStrokes) {
+            // Solo cambia con la duración del swipe (ajustes), no en cada gesto
+            this.maxStrokes = maxStrokes;
+            this.gestures = new GestureDescription[2][maxStrokes];
+        }
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.distance = distance;
+        this.duration = duration;
+        this.strokeGap = strokeGap;
+        this.strokeProfile = strokeProfile;
+        this.width = width;
+        this.height = height;
+
+        build(gestures[0], createPath(SwipeCommand.SWIPE_UP));
+        build(gestures[1], createPath(SwipeCommand.SWIPE_DOWN));
+        return true;
+    }
+
+    private Path createPath(int command) {
+        int count = StrokeProfile.computePath(strokeProfile, command, centerX, centerY, distance, maxWobble,
+                width, height, points);
+
+        Path path = new Path();
+        path.moveTo(points[0], points[1]);
+        for (int i = 1; i < count; i++) {
+            path.lineTo(points[i * 2], points[i * 2 + 1]);
+        }
+        return path;
+    }
+
+    private void build(GestureDescription[] target, Path path) {
+        // Los trazos se separan con la duración configurada: FLICK dura menos y deja más hueco
+        long strokeDuration = StrokeProfile.duration(strokeProfile, duration);
+        for (int strokes = 1; strokes <= maxStrokes; strokes++) {
+            GestureDescription.Builder builder = new GestureDescription.Builder();
+            for (int i = 0; i < strokes; i++) {
+                long startTime = SwipeGeometry.strokeStartTime(i, duration, strokeGap);
+                builder.addStroke(new GestureDescription.StrokeDescription(path, startTime, strokeDuration));
+            }
+            target[strokes - 1] = builder.build();
+        }
+    }
+
+    GestureDescription get(int command, int strokes) {
+        int row = command == SwipeCommand.SWIPE_UP ? 0 : 1;
+        int index = Math.max(1, Math.min(strokes, maxStrokes)) - 1;
+        return gestures[row][index];
+    }
+
+    int getMaxStrokes() {
+        return maxStrokes;
+    }
+}
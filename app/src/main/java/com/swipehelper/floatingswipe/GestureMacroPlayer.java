@@ -0,0 +1,133 @@
+package com.swipehelper.floatingswipe;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.swipehelper.floatingswipe.core.MacroFormat;
+import com.swipehelper.floatingswipe.core.MacroReader;
+import com.swipehelper.floatingswipe.core.MacroRecord;
+
+import java.io.File;
+import java.io.IOException;
+
+// Reproduce una macro grabada leyéndola en streaming y respetando los tiempos originales.
+// Todo ocurre en el hilo del Handler recibido (el hilo de gestos); solo hay un registro
+// en memoria a la vez, así que las sesiones largas no ocupan heap.
+// Cada registro llega al Target con su momento programado: el error de temporización se mide
+// allí, justo al llamar a dispatchGesture.
+// Un gesto nuevo cancela el que está en curso, así que un registro nunca sale encima del
+// anterior: si el Target no está listo, espera a resume() y el retraso cuenta como error.
+final class GestureMacroPlayer {
+
+    private static final String TAG = "GestureMacroPlayer";
+
+    interface Target {
+        // false si hay un gesto en curso; el registro espera a resume()
+        boolean isReady();
+
+        // scheduledNanos: momento (System.nanoTime) en el que debería enviarse
+        void onMacroCommand(int command, long scheduledNanos);
+
+        void onMacroStroke(float startX, float startY, float endX, float endY, long duration, long scheduledNanos);
+
+        void onMacroFinished();
+    }
+
+    private final Handler handler;
+    private final Target target;
+
+    private final MacroRecord record = new MacroRecord();
+    private MacroReader reader;
+    private long startNanos;
+    private long scheduledNanos;
+    private boolean waiting;
+
+    private final Runnable step = new Runnable() {
+        @Override
+        public void run() {
+            if (!target.isReady()) {
+                waiting = true;
+                return;
+            }
+            execute(record);
+            scheduleNext();
+        }
+    };
+
+    GestureMacroPlayer(Handler handler, Target target) {
+        this.handler = handler;
+        this.target = target;
+    }
+
+    boolean start(File file) {
+        stop();
+        try {
+            reader = new MacroReader(file);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot open macro " + file, e);
+            return false;
+        }
+        startNanos = System.nanoTime();
+        scheduleNext();
+        return true;
+    }
+
+    void stop() {
+        handler.removeCallbacks(step);
+        waiting = false;
+        closeReader();
+    }
+
+    // Terminó el gesto que hacía esperar: sale el registro pendiente
+    void resume() {
+        if (waiting && reader != null) {
+            waiting = false;
+            step.run();
+        }
+    }
+
+    boolean isPlaying() {
+        return reader != null;
+    }
+
+    private void scheduleNext() {
+        boolean hasNext;
+        try {
+            hasNext = reader != null && reader.next(record);
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading macro", e);
+            hasNext = false;
+        }
+
+        if (!hasNext) {
+            closeReader();
+            target.onMacroFinished();
+            return;
+        }
+
+        scheduledNanos = startNanos + record.offsetNanos;
+        long delayMs = Math.max(0, (scheduledNanos - System.nanoTime()) / 1_000_000);
+        handler.postAtTime(step, SystemClock.uptimeMillis() + delayMs);
+    }
+
+    private void execute(MacroRecord record) {
+        if (record.op == MacroFormat.OP_CUSTOM_STROKE) {
+            target.onMacroStroke(record.startX, record.startY, record.endX, record.endY, record.durationMs,
+                    scheduledNanos);
+        } else {
+            target.onMacroCommand(record.op, scheduledNanos);
+        }
+    }
+
+    private void closeReader() {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Error closing macro", e);
+            }
+            reader = null;
+        }
+    }
+}
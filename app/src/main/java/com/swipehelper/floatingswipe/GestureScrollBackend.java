@@ -0,0 +1,37 @@
+package com.swipehelper.floatingswipe;
+
+import com.swipehelper.floatingswipe.core.GestureDispatcher;
+
+// Backend por defecto: trazos sintéticos enviados por un GestureDispatcher
+// (AccessibilityGestureDispatcher en el dispositivo)
+final class GestureScrollBackend implements ScrollBackend {
+
+    private final GestureDispatcher dispatcher;
+    private final Callback callback;
+
+    GestureScrollBackend(GestureDispatcher dispatcher, Callback callback) {
+        this.dispatcher = dispatcher;
+        this.callback = callback;
+        dispatcher.setListener(new GestureDispatcher.Listener() {
+            @Override
+            public void onGestureFinished(boolean completed) {
+                callback.onScrollFinished(GestureScrollBackend.this, completed);
+            }
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "gesture";
+    }
+
+    @Override
+    public boolean canScroll(int command) {
+        return true;
+    }
+
+    @Override
+    public boolean scroll(int command, int strokes) {
+        return dispatcher.dispatch(command, strokes);
+    }
+}
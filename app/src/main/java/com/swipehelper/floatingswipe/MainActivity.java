@@ -5,22 +5,55 @@ import android.content.Intent;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
 import android.provider.Settings;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
+import android.widget.SeekBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.swipehelper.floatingswipe.core.StrokeProfile;
+import com.swipehelper.floatingswipe.core.SwipeSettings;
+
 public class MainActivity extends AppCompatActivity {
 
     private Button btnGrantOverlayPermission;
     private Button btnGrantAccessibilityPermission;
     private Button btnToggleService;
+    private Button btnStrokeProfile;
     private TextView tvServiceStatus;
+
+    // Ajustes del swipe (SeekBar.setMin necesita API 26: se usan desplazamientos)
+    private static final int DISTANCE_STEP = 10;
+    private static final int DURATION_STEP = 10;
+    private static final int HOLD_SPEED_STEP = 100;
+    private static final int AUTO_ADVANCE_STEP = 1000;
+    // En el orden de StrokeProfile
+    private static final String[] STROKE_LABELS = {"recta", "acelerada", "golpe corto", "curva"};
+    private TextView tvSwipeDistance, tvSwipeDuration, tvHoldSpeed, tvAutoAdvance, tvAnchor;
+    private SeekBar seekSwipeDistance, seekSwipeDuration, seekHoldSpeed, seekAutoAdvance, seekAnchorX, seekAnchorY;
+    private CheckBox cbManualAnchor, cbAdaptive, cbKeyTrigger, cbHideOverlay, cbFlatOverlay;
+    private SettingsStore settingsStore;
+    private final SettingsStore.Listener settingsListener = new SettingsStore.Listener() {
+        @Override
+        public void onSettingsChanged(SwipeSettings settings) {
+            showSettings(settings);
+        }
+    };
     
-    private boolean isServiceRunning = false;
+    // Permisos y estado de los servicios sin llamadas binder en cada refresco de la UI
+    private ServiceStateRepository serviceState;
+    private final ServiceStateRepository.Listener serviceStateListener = new ServiceStateRepository.Listener() {
+        @Override
+        public void onServiceStateChanged(ServiceStateRepository state) {
+            updateUI();
+        }
+    };
     private static final int OVERLAY_PERMISSION_REQUEST_CODE = 1;
 
     @Override
@@ -30,7 +63,8 @@ public class MainActivity extends AppCompatActivity {
 
         initViews();
         setupClickListeners();
-        updateUI();
+        setupSettingsControls();
+        serviceState = ServiceStateRepository.get(this);
     }
 
     private void initViews() {
@@ -38,6 +72,23 @@ public class MainActivity extends AppCompatActivity {
         btnGrantAccessibilityPermission = findViewById(R.id.btnGrantAccessibilityPermission);
         btnToggleService = findViewById(R.id.btnToggleService);
         tvServiceStatus = findViewById(R.id.tvServiceStatus);
+        tvSwipeDistance = findViewById(R.id.tvSwipeDistance);
+        tvSwipeDuration = findViewById(R.id.tvSwipeDuration);
+        tvHoldSpeed = findViewById(R.id.tvHoldSpeed);
+        tvAutoAdvance = findViewById(R.id.tvAutoAdvance);
+        tvAnchor = findViewById(R.id.tvAnchor);
+        seekSwipeDistance = findViewById(R.id.seekSwipeDistance);
+        seekSwipeDuration = findViewById(R.id.seekSwipeDuration);
+        seekHoldSpeed = findViewById(R.id.seekHoldSpeed);
+        seekAutoAdvance = findViewById(R.id.seekAutoAdvance);
+        seekAnchorX = findViewById(R.id.seekAnchorX);
+        seekAnchorY = findViewById(R.id.seekAnchorY);
+        cbManualAnchor = findViewById(R.id.cbManualAnchor);
+        cbAdaptive = findViewById(R.id.cbAdaptive);
+        cbKeyTrigger = findViewById(R.id.cbKeyTrigger);
+        cbHideOverlay = findViewById(R.id.cbHideOverlay);
+        cbFlatOverlay = findViewById(R.id.cbFlatOverlay);
+        btnStrokeProfile = findViewById(R.id.btnStrokeProfile);
     }
 
     private void setupClickListeners() {
@@ -63,9 +114,141 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    private void setupSettingsControls() {
+        seekSwipeDistance.setMax((int) ((SwipeSettings.MAX_DISTANCE - SwipeSettings.MIN_DISTANCE) / DISTANCE_STEP));
+        seekSwipeDuration.setMax((int) ((SwipeSettings.MAX_DURATION - SwipeSettings.MIN_DURATION) / DURATION_STEP));
+        seekHoldSpeed.setMax((int) ((SwipeSettings.MAX_HOLD_SPEED - SwipeSettings.MIN_HOLD_SPEED) / HOLD_SPEED_STEP));
+        seekAutoAdvance.setMax((int) ((SwipeSettings.MAX_AUTO_ADVANCE_INTERVAL
+                - SwipeSettings.MIN_AUTO_ADVANCE_INTERVAL) / AUTO_ADVANCE_STEP));
+
+        SeekBar.OnSeekBarChangeListener seekListener = new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                if (fromUser) {
+                    saveSettingsFromControls(seekBar);
+                }
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+            }
+        };
+        seekSwipeDistance.setOnSeekBarChangeListener(seekListener);
+        seekSwipeDuration.setOnSeekBarChangeListener(seekListener);
+        seekHoldSpeed.setOnSeekBarChangeListener(seekListener);
+        seekAutoAdvance.setOnSeekBarChangeListener(seekListener);
+        seekAnchorX.setOnSeekBarChangeListener(seekListener);
+        seekAnchorY.setOnSeekBarChangeListener(seekListener);
+
+        cbManualAnchor.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                if (buttonView.isPressed()) {
+                    saveSettingsFromControls(cbManualAnchor);
+                }
+            }
+        });
+
+        cbAdaptive.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                if (buttonView.isPressed()) {
+                    settingsStore.setAdaptive(isChecked);
+                }
+            }
+        });
+
+        CompoundButton.OnCheckedChangeListener keyListener = new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                if (buttonView.isPressed()) {
+                    settingsStore.setKeyTrigger(cbKeyTrigger.isChecked(), cbHideOverlay.isChecked());
+                }
+            }
+        };
+        cbKeyTrigger.setOnCheckedChangeListener(keyListener);
+        cbHideOverlay.setOnCheckedChangeListener(keyListener);
+
+        cbFlatOverlay.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                if (buttonView.isPressed()) {
+                    settingsStore.setFlatOverlay(isChecked);
+                }
+            }
+        });
+
+        btnStrokeProfile.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                int current = settingsStore.getSettings().strokeProfile;
+                settingsStore.setStrokeProfile((current + 1) % StrokeProfile.COUNT);
+            }
+        });
+
+        // La carga es asíncrona: los controles se rellenan cuando llega el primer aviso
+        settingsStore = SettingsStore.get(this);
+        showSettings(settingsStore.getSettings());
+        settingsStore.addListener(settingsListener, new Handler());
+    }
+
+    private void saveSettingsFromControls(View source) {
+        if (source == seekSwipeDistance || source == seekSwipeDuration) {
+            settingsStore.setSwipe(
+                    SwipeSettings.MIN_DISTANCE + seekSwipeDistance.getProgress() * DISTANCE_STEP,
+                    SwipeSettings.MIN_DURATION + seekSwipeDuration.getProgress() * DURATION_STEP);
+        } else if (source == seekHoldSpeed) {
+            settingsStore.setHoldSpeed(SwipeSettings.MIN_HOLD_SPEED + seekHoldSpeed.getProgress() * HOLD_SPEED_STEP);
+        } else if (source == seekAutoAdvance) {
+            settingsStore.setAutoAdvanceInterval(SwipeSettings.MIN_AUTO_ADVANCE_INTERVAL
+                    + seekAutoAdvance.getProgress() * AUTO_ADVANCE_STEP);
+        } else if (cbManualAnchor.isChecked()) {
+            settingsStore.setAnchor(seekAnchorX.getProgress() / 100f, seekAnchorY.getProgress() / 100f);
+        } else {
+            settingsStore.clearAnchor();
+        }
+    }
+
+    private void showSettings(SwipeSettings settings) {
+        seekSwipeDistance.setProgress(Math.round((settings.distance - SwipeSettings.MIN_DISTANCE) / DISTANCE_STEP));
+        seekSwipeDuration.setProgress((int) ((settings.duration - SwipeSettings.MIN_DURATION) / DURATION_STEP));
+        tvSwipeDistance.setText("Distancia del swipe: " + Math.round(settings.distance) + " px");
+        tvSwipeDuration.setText("Duración del swipe: " + settings.duration + " ms");
+        seekHoldSpeed.setProgress(Math.round((settings.holdSpeed - SwipeSettings.MIN_HOLD_SPEED) / HOLD_SPEED_STEP));
+        tvHoldSpeed.setText("Velocidad al mantener pulsado: " + Math.round(settings.holdSpeed) + " px/s");
+        seekAutoAdvance.setProgress((int) ((settings.autoAdvanceInterval - SwipeSettings.MIN_AUTO_ADVANCE_INTERVAL)
+                / AUTO_ADVANCE_STEP));
+        tvAutoAdvance.setText("Avance automático cada " + settings.autoAdvanceInterval / 1000 + " s");
+
+        cbAdaptive.setChecked(settings.adaptive);
+        cbKeyTrigger.setChecked(settings.keyTrigger);
+        cbHideOverlay.setChecked(settings.hideOverlay);
+        // Sin teclas el overlay es el único disparador
+        cbHideOverlay.setEnabled(settings.keyTrigger);
+        cbFlatOverlay.setChecked(settings.flatOverlay);
+        btnStrokeProfile.setText("Forma del trazo: " + STROKE_LABELS[settings.strokeProfile]);
+
+        boolean manual = settings.hasAnchor();
+        cbManualAnchor.setChecked(manual);
+        seekAnchorX.setEnabled(manual);
+        seekAnchorY.setEnabled(manual);
+        if (manual) {
+            seekAnchorX.setProgress(Math.round(settings.anchorFractionX * 100));
+            seekAnchorY.setProgress(Math.round(settings.anchorFractionY * 100));
+            tvAnchor.setText("Punto del swipe: " + seekAnchorX.getProgress() + "% , "
+                    + seekAnchorY.getProgress() + "% de la pantalla");
+        } else {
+            tvAnchor.setText("Punto del swipe: automático");
+        }
+    }
+
     private void requestOverlayPermission() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            if (!Settings.canDrawOverlays(this)) {
+            if (!serviceState.isOverlayGranted()) {
                 Intent intent = new Intent(Settings.ACTION_MANAGE_OVERLAY_PERMISSION);
                 intent.setData(Uri.parse("package:" + getPackageName()));
                 startActivityForResult(intent, OVERLAY_PERMISSION_REQUEST_CODE);
@@ -83,17 +266,17 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void toggleFloatingButtonService() {
-        if (!hasOverlayPermission()) {
+        if (!serviceState.isOverlayGranted()) {
             Toast.makeText(this, "Primero concede el permiso de overlay", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        if (!isAccessibilityServiceEnabled()) {
+        if (!serviceState.isAccessibilityEnabled()) {
             Toast.makeText(this, "Primero activa el servicio de accesibilidad", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        if (isServiceRunning) {
+        if (serviceState.isFloatingServiceRunning()) {
             stopFloatingButtonService();
         } else {
             startFloatingButtonService();
@@ -102,61 +285,31 @@ public class MainActivity extends AppCompatActivity {
 
     private void startFloatingButtonService() {
         Intent serviceIntent = new Intent(this, FloatingButtonService.class);
+        StartupTrace.requested();
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             startForegroundService(serviceIntent);
         } else {
             startService(serviceIntent);
         }
-        isServiceRunning = true;
-        updateUI();
+        // La UI se actualiza cuando el servicio informa de que está en marcha
         Toast.makeText(this, "Botones flotantes activados", Toast.LENGTH_SHORT).show();
     }
 
     private void stopFloatingButtonService() {
         Intent serviceIntent = new Intent(this, FloatingButtonService.class);
         stopService(serviceIntent);
-        isServiceRunning = false;
-        updateUI();
         Toast.makeText(this, "Botones flotantes desactivados", Toast.LENGTH_SHORT).show();
     }
 
-    private boolean hasOverlayPermission() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            return Settings.canDrawOverlays(this);
-        }
-        return true;
-    }
-
-    private boolean isAccessibilityServiceEnabled() {
-        int accessibilityEnabled = 0;
-        final String service = getPackageName() + "/" + SwipeSimulatorService.class.getCanonicalName();
-        try {
-            accessibilityEnabled = Settings.Secure.getInt(
-                    getApplicationContext().getContentResolver(),
-                    Settings.Secure.ACCESSIBILITY_ENABLED);
-        } catch (Settings.SettingNotFoundException e) {
-            // Setting not found
-        }
-
-        if (accessibilityEnabled == 1) {
-            String settingValue = Settings.Secure.getString(
-                    getApplicationContext().getContentResolver(),
-                    Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES);
-            if (settingValue != null) {
-                return settingValue.contains(service);
-            }
-        }
-
-        return false;
-    }
-
     private void updateUI() {
-        // Actualizar estado de permisos
-        btnGrantOverlayPermission.setEnabled(!hasOverlayPermission());
-        btnGrantAccessibilityPermission.setEnabled(!isAccessibilityServiceEnabled());
+        // Actualizar estado de permisos (valores en caché del repositorio)
+        boolean overlayGranted = serviceState.isOverlayGranted();
+        boolean accessibilityEnabled = serviceState.isAccessibilityEnabled();
+        btnGrantOverlayPermission.setEnabled(!overlayGranted);
+        btnGrantAccessibilityPermission.setEnabled(!accessibilityEnabled);
         
         // Actualizar botón del servicio
-        if (isServiceRunning) {
+        if (serviceState.isFloatingServiceRunning()) {
             btnToggleService.setText(R.string.disable_service);
             tvServiceStatus.setText(R.string.service_running);
         } else {
@@ -165,26 +318,40 @@ public class MainActivity extends AppCompatActivity {
         }
         
         // Habilitar botón solo si ambos permisos están concedidos
-        boolean canToggleService = hasOverlayPermission() && isAccessibilityServiceEnabled();
+        boolean canToggleService = overlayGranted && accessibilityEnabled;
         btnToggleService.setEnabled(canToggleService);
     }
 
     @Override
-    protected void onResume() {
-        super.onResume();
+    protected void onStart() {
+        super.onStart();
+        serviceState.addListener(serviceStateListener);
         updateUI();
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        serviceState.removeListener(serviceStateListener);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        settingsStore.removeListener(settingsListener);
+    }
+
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == OVERLAY_PERMISSION_REQUEST_CODE) {
-            if (hasOverlayPermission()) {
+            // AppOps no siempre avisa a tiempo al volver de la pantalla de permisos
+            serviceState.refreshOverlayPermission();
+            if (serviceState.isOverlayGranted()) {
                 Toast.makeText(this, "Permiso de overlay concedido", Toast.LENGTH_SHORT).show();
             } else {
                 Toast.makeText(this, "Permiso de overlay denegado", Toast.LENGTH_SHORT).show();
             }
-            updateUI();
         }
     }
 }
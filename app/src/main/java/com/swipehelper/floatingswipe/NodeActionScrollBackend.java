@@ -0,0 +1,77 @@
+package com.swipehelper.floatingswipe;
+
+import android.os.Handler;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import com.swipehelper.floatingswipe.core.SwipeCommand;
+
+// Backend rápido: ACTION_SCROLL_FORWARD/BACKWARD sobre el contenedor de reels en caché.
+// No espera a que termine el trazo del swipe; solo está disponible si el contenedor
+// anuncia la acción correspondiente.
+final class NodeActionScrollBackend implements ScrollBackend {
+
+    private final ReelContainerTracker containerTracker;
+    private final Handler handler;
+    private final Callback callback;
+
+    // Resultado pendiente de entregar (el callback nunca se llama dentro de scroll())
+    private boolean lastResult;
+    private final Runnable deliverResult = new Runnable() {
+        @Override
+        public void run() {
+            callback.onScrollFinished(NodeActionScrollBackend.this, lastResult);
+        }
+    };
+
+    NodeActionScrollBackend(ReelContainerTracker containerTracker, Handler handler, Callback callback) {
+        this.containerTracker = containerTracker;
+        this.handler = handler;
+        this.callback = callback;
+    }
+
+    @Override
+    public String getName() {
+        return "node-action";
+    }
+
+    @Override
+    public boolean canScroll(int command) {
+        AccessibilityNodeInfo container = containerTracker.getContainer();
+        // Con la ventana cambiada performAction fallaría tras una llamada binder: mejor el gesto
+        if (container == null || containerTracker.isSearchPending()) {
+            return false;
+        }
+        return (container.getActions() & actionFor(command)) != 0;
+    }
+
+    @Override
+    public boolean scroll(int command, int strokes) {
+        AccessibilityNodeInfo container = containerTracker.getContainer();
+        if (container == null) {
+            return false;
+        }
+
+        int action = actionFor(command);
+        int performed = 0;
+        for (int i = 0; i < strokes; i++) {
+            if (!container.performAction(action)) {
+                break;
+            }
+            performed++;
+        }
+        if (performed == 0) {
+            return false;
+        }
+
+        lastResult = performed == strokes;
+        handler.post(deliverResult);
+        return true;
+    }
+
+    // Swipe up (dedo hacia arriba) avanza al siguiente elemento
+    private static int actionFor(int command) {
+        return command == SwipeCommand.SWIPE_UP
+                ? AccessibilityNodeInfo.ACTION_SCROLL_FORWARD
+                : AccessibilityNodeInfo.ACTION_SCROLL_BACKWARD;
+    }
+}
@@ -0,0 +1,73 @@
+package com.swipehelper.floatingswipe;
+
+import android.view.Choreographer;
+import android.view.ViewTreeObserver;
+
+import com.swipehelper.floatingswipe.core.FrameStats;
+
+// Frames del overlay medidos con el Choreographer del hilo principal.
+// Solo se siguen los vsync durante una interacción (click, arrastre, animación al borde): en
+// reposo no hay callback por frame y el overlay no despierta al hilo mientras se ve el vídeo.
+// Cada interacción alarga la sesión con track(); al vencer se cierra sola.
+// Los dibujados del overlay se cuentan con un OnDrawListener, dentro y fuera de las sesiones.
+final class OverlayFrameMonitor {
+
+    // Margen tras la última interacción para recoger los frames de la animación
+    private static final long SESSION_TAIL_NANOS = 150_000_000L;
+
+    private final Choreographer choreographer;
+    private final FrameStats stats;
+
+    private long sessionEndNanos;
+    private boolean frameCallbackPosted;
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            frameCallbackPosted = false;
+            stats.onFrame(frameTimeNanos);
+            if (frameTimeNanos < sessionEndNanos) {
+                postFrame();
+            } else {
+                stats.endSession();
+            }
+        }
+    };
+
+    final ViewTreeObserver.OnDrawListener drawListener = new ViewTreeObserver.OnDrawListener() {
+        @Override
+        public void onDraw() {
+            stats.onDraw();
+        }
+    };
+
+    OverlayFrameMonitor(Choreographer choreographer, FrameStats stats) {
+        this.choreographer = choreographer;
+        this.stats = stats;
+    }
+
+    // La interacción dura al menos durationNanos desde ahora
+    void track(long durationNanos) {
+        long end = System.nanoTime() + durationNanos + SESSION_TAIL_NANOS;
+        if (end > sessionEndNanos) {
+            sessionEndNanos = end;
+        }
+        stats.beginSession();
+        postFrame();
+    }
+
+    void stop() {
+        if (frameCallbackPosted) {
+            choreographer.removeFrameCallback(frameCallback);
+            frameCallbackPosted = false;
+        }
+        stats.endSession();
+    }
+
+    private void postFrame() {
+        if (!frameCallbackPosted) {
+            frameCallbackPosted = true;
+            choreographer.postFrameCallback(frameCallback);
+        }
+    }
+}
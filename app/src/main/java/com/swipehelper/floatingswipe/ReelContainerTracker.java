@@ -0,0 +1,163 @@
+package com.swipehelper.floatingswipe;
+
+import android.accessibilityservice.AccessibilityService;
+import android.graphics.Rect;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Localiza y guarda en caché el contenedor desplazable de los reels.
+// Los eventos (hilo principal) solo marcan la caché como sucia; la búsqueda y el refresco de
+// límites se hacen en el hilo de gestos poco después (SwipeSimulatorService agrupa los eventos
+// en un refresco programado), nunca en el camino de un toque.
+// Las marcas se leen y se borran en una sola operación: un evento que llegue durante refresh()
+// queda marcado para el siguiente.
+final class ReelContainerTracker {
+
+    private static final int MAX_NODES_VISITED = 500;
+
+    private final AtomicBoolean windowChanged = new AtomicBoolean(true);
+    private final AtomicBoolean contentChanged = new AtomicBoolean(true);
+
+    // Estado del hilo de gestos
+    private AccessibilityNodeInfo container;
+    private final Rect bounds = new Rect();
+    private final Rect scratch = new Rect();
+    private long searchCount;
+    private long refreshCount;
+
+    // Nueva ventana: hay que volver a buscar el contenedor
+    void onWindowStateChanged() {
+        windowChanged.set(true);
+        contentChanged.set(true);
+    }
+
+    // Cambio de contenido: basta con refrescar los límites del contenedor en caché
+    void onWindowContentChanged() {
+        contentChanged.set(true);
+    }
+
+    // Devuelve true si los límites del contenedor cambiaron desde la última llamada
+    boolean refresh(AccessibilityService service) {
+        boolean window = windowChanged.getAndSet(false);
+        boolean content = contentChanged.getAndSet(false);
+        if (!window && !content) {
+            return false;
+        }
+
+        boolean needsSearch = window || container == null;
+
+        if (!needsSearch) {
+            refreshCount++;
+            if (container.refresh() && container.isVisibleToUser()) {
+                container.getBoundsInScreen(scratch);
+                return updateBounds(scratch);
+            }
+            // El nodo ya no es válido: buscarlo de nuevo
+        }
+
+        searchCount++;
+        releaseContainer();
+        container = findScrollableContainer(service.getRootInActiveWindow());
+        if (container == null) {
+            scratch.setEmpty();
+        } else {
+            container.getBoundsInScreen(scratch);
+        }
+        return updateBounds(scratch);
+    }
+
+    private boolean updateBounds(Rect newBounds) {
+        if (newBounds.equals(bounds)) {
+            return false;
+        }
+        bounds.set(newBounds);
+        return true;
+    }
+
+    // Búsqueda en anchura del nodo desplazable visible más grande
+    private AccessibilityNodeInfo findScrollableContainer(AccessibilityNodeInfo root) {
+        if (root == null) {
+            return null;
+        }
+
+        ArrayDeque<AccessibilityNodeInfo> queue = new ArrayDeque<>();
+        queue.add(root);
+        AccessibilityNodeInfo best = null;
+        int bestArea = 0;
+        int visited = 0;
+
+        while (!queue.isEmpty()) {
+            AccessibilityNodeInfo node = queue.poll();
+            boolean keep = false;
+
+            if (visited++ < MAX_NODES_VISITED) {
+                if (node.isScrollable() && node.isVisibleToUser()) {
+                    node.getBoundsInScreen(scratch);
+                    int area = scratch.width() * scratch.height();
+                    if (area > bestArea) {
+                        if (best != null) {
+                            best.recycle();
+                        }
+                        best = node;
+                        bestArea = area;
+                        keep = true;
+                    }
+                }
+                for (int i = 0; i < node.getChildCount(); i++) {
+                    AccessibilityNodeInfo child = node.getChild(i);
+                    if (child != null) {
+                        queue.add(child);
+                    }
+                }
+            }
+
+            if (!keep) {
+                node.recycle();
+            }
+        }
+        return best;
+    }
+
+    // Cambió la ventana y aún no se ha vuelto a buscar: el nodo en caché es de la anterior
+    boolean isSearchPending() {
+        return windowChanged.get();
+    }
+
+    boolean hasContainer() {
+        return container != null && !bounds.isEmpty();
+    }
+
+    // Límites del contenedor en pantalla (vacíos si no se encontró)
+    Rect getBounds() {
+        return bounds;
+    }
+
+    // Nodo en caché, solo para usar desde el hilo de gestos
+    AccessibilityNodeInfo getContainer() {
+        return container;
+    }
+
+    long getSearchCount() {
+        return searchCount;
+    }
+
+    long getRefreshCount() {
+        return refreshCount;
+    }
+
+    void release() {
+        releaseContainer();
+        bounds.setEmpty();
+        windowChanged.set(true);
+        contentChanged.set(true);
+    }
+
+    private void releaseContainer() {
+        if (container != null) {
+            container.recycle();
+            container = null;
+        }
+    }
+}
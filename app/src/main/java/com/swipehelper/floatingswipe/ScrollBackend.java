@@ -0,0 +1,19 @@
+package com.swipehelper.floatingswipe;
+
+// Forma de avanzar al siguiente/anterior elemento en la app objetivo.
+// Todas las llamadas ocurren en el hilo de gestos; el resultado se entrega con
+// Callback.onScrollFinished de forma asíncrona, también en el hilo de gestos.
+interface ScrollBackend {
+
+    interface Callback {
+        void onScrollFinished(ScrollBackend backend, boolean success);
+    }
+
+    String getName();
+
+    // true si este backend puede ejecutar el comando ahora mismo
+    boolean canScroll(int command);
+
+    // Devuelve false si no se pudo iniciar (no se llamará al callback)
+    boolean scroll(int command, int strokes);
+}
@@ -0,0 +1,237 @@
+package com.swipehelper.floatingswipe;
+
+import android.app.AppOpsManager;
+import android.content.ComponentName;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Estado de permisos y servicios compartido por la UI.
+// - Permiso de accesibilidad: se lee de Settings.Secure solo al crear el repositorio y cuando
+//   un ContentObserver avisa de un cambio, no en cada onResume.
+// - Permiso de overlay: AppOpsManager avisa de los cambios (API 23+).
+// - Estado "en ejecución": lo notifican los propios servicios, así es correcto aunque la
+//   Activity se haya recreado.
+// - App objetivo en primer plano: la decide SwipeSimulatorService con TYPE_WINDOW_STATE_CHANGED;
+//   sin el servicio conectado no se sabe y se considera que sí.
+// - Avance automático: el estado es el de SwipeSimulatorService, que es quien lo ejecuta; el
+//   overlay solo lo lee de aquí para su botón de la notificación.
+// Se usa desde el hilo principal (dump() solo lee); los getters no hacen llamadas binder.
+final class ServiceStateRepository {
+
+    interface Listener {
+        void onServiceStateChanged(ServiceStateRepository state);
+    }
+
+    private static ServiceStateRepository instance;
+
+    private final Context context;
+    private final ComponentName accessibilityComponent;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private boolean overlayGranted;
+    private boolean accessibilityEnabled;
+    private boolean accessibilityConnected;
+    private boolean floatingServiceRunning;
+    private boolean targetForeground = true;
+    private boolean autoAdvanceEnabled;
+    private long targetForegroundChangedNanos;
+
+    private long settingsReads;
+
+    private final ContentObserver accessibilityObserver = new ContentObserver(mainHandler) {
+        @Override
+        public void onChange(boolean selfChange) {
+            if (readAccessibilityEnabled()) {
+                notifyListeners();
+            }
+        }
+    };
+
+    private final Runnable overlayRecheck = new Runnable() {
+        @Override
+        public void run() {
+            if (readOverlayGranted()) {
+                notifyListeners();
+            }
+        }
+    };
+
+    static synchronized ServiceStateRepository get(Context context) {
+        if (instance == null) {
+            instance = new ServiceStateRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ServiceStateRepository(Context context) {
+        this.context = context;
+        this.accessibilityComponent = new ComponentName(context, SwipeSimulatorService.class);
+
+        ContentResolver resolver = context.getContentResolver();
+        resolver.registerContentObserver(
+                Settings.Secure.getUriFor(Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES), false,
+                accessibilityObserver);
+        resolver.registerContentObserver(
+                Settings.Secure.getUriFor(Settings.Secure.ACCESSIBILITY_ENABLED), false,
+                accessibilityObserver);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            AppOpsManager appOps = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
+            appOps.startWatchingMode(AppOpsManager.OPSTR_SYSTEM_ALERT_WINDOW, context.getPackageName(),
+                    new AppOpsManager.OnOpChangedListener() {
+                        @Override
+                        public void onOpChanged(String op, String packageName) {
+                            // Llega por binder; además canDrawOverlays puede tardar un poco en reflejarlo
+                            mainHandler.post(overlayRecheck);
+                        }
+                    });
+        }
+
+        readOverlayGranted();
+        readAccessibilityEnabled();
+    }
+
+    boolean isOverlayGranted() {
+        return overlayGranted;
+    }
+
+    // Un servicio conectado implica que está activado aunque el observer aún no haya avisado
+    boolean isAccessibilityEnabled() {
+        return accessibilityEnabled || accessibilityConnected;
+    }
+
+    boolean isAccessibilityConnected() {
+        return accessibilityConnected;
+    }
+
+    boolean isFloatingServiceRunning() {
+        return floatingServiceRunning;
+    }
+
+    boolean isTargetForeground() {
+        return targetForeground || !accessibilityConnected;
+    }
+
+    boolean isAutoAdvanceEnabled() {
+        return autoAdvanceEnabled;
+    }
+
+    // Momento (reloj de System.nanoTime) del evento que cambió el primer plano
+    long getTargetForegroundChangedNanos() {
+        return targetForegroundChangedNanos;
+    }
+
+    long getSettingsReads() {
+        return settingsReads;
+    }
+
+    // Si el listener ya estaba registrado no se duplica
+    void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Comprobación explícita, p. ej. al volver de la pantalla de permisos de overlay
+    void refreshOverlayPermission() {
+        overlayRecheck.run();
+    }
+
+    // Los servicios pueden llamar desde cualquier hilo
+    void setFloatingServiceRunning(final boolean running) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (floatingServiceRunning != running) {
+                    floatingServiceRunning = running;
+                    notifyListeners();
+                }
+            }
+        });
+    }
+
+    void setAccessibilityConnected(final boolean connected) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (accessibilityConnected != connected) {
+                    accessibilityConnected = connected;
+                    notifyListeners();
+                }
+            }
+        });
+    }
+
+    // Solo lo llama SwipeSimulatorService, desde el hilo de gestos
+    void setAutoAdvanceEnabled(final boolean enabled) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (autoAdvanceEnabled != enabled) {
+                    autoAdvanceEnabled = enabled;
+                    notifyListeners();
+                }
+            }
+        });
+    }
+
+    // Solo desde el hilo principal: los listeners se avisan en la misma llamada, sin pasar por
+    // la cola del Handler, para que el overlay vuelva lo antes posible
+    void setTargetForeground(boolean foreground, long eventNanos) {
+        if (targetForeground != foreground) {
+            targetForeground = foreground;
+            targetForegroundChangedNanos = eventNanos;
+            notifyListeners();
+        }
+    }
+
+    // Devuelven true si el valor cambió
+    private boolean readOverlayGranted() {
+        boolean granted = Build.VERSION.SDK_INT < Build.VERSION_CODES.M || Settings.canDrawOverlays(context);
+        boolean changed = granted != overlayGranted;
+        overlayGranted = granted;
+        return changed;
+    }
+
+    private boolean readAccessibilityEnabled() {
+        settingsReads++;
+        boolean enabled = false;
+        ContentResolver resolver = context.getContentResolver();
+        if (Settings.Secure.getInt(resolver, Settings.Secure.ACCESSIBILITY_ENABLED, 0) == 1) {
+            String services = Settings.Secure.getString(resolver, Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES);
+            if (services != null) {
+                TextUtils.SimpleStringSplitter splitter = new TextUtils.SimpleStringSplitter(':');
+                splitter.setString(services);
+                while (splitter.hasNext()) {
+                    if (accessibilityComponent.equals(ComponentName.unflattenFromString(splitter.next()))) {
+                        enabled = true;
+                        break;
+                    }
+                }
+            }
+        }
+        boolean changed = enabled != accessibilityEnabled;
+        accessibilityEnabled = enabled;
+        return changed;
+    }
+
+    private void notifyListeners() {
+        for (int i = listeners.size() - 1; i >= 0; i--) {
+            listeners.get(i).onServiceStateChanged(this);
+        }
+    }
+}
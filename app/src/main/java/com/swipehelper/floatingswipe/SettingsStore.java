@@ -0,0 +1,274 @@
+package com.swipehelper.floatingswipe;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+import com.swipehelper.floatingswipe.core.StrokeProfile;
+import com.swipehelper.floatingswipe.core.SwipeSettings;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Ajustes persistentes compartidos por los dos servicios.
+// - La carga de SharedPreferences se hace en un hilo de E/S: el arranque de los servicios no
+//   espera al disco y usa SwipeSettings.DEFAULTS hasta que llega la primera notificación.
+// - Las escrituras se agrupan: cada cambio reprograma una única escritura diferida, así un
+//   arrastre del overlay o un SeekBar generan un solo commit al terminar.
+// - Los cambios se publican en vivo a los listeners, cada uno en su Handler.
+final class SettingsStore {
+
+    interface Listener {
+        void onSettingsChanged(SwipeSettings settings);
+    }
+
+    private static final String TAG = "SettingsStore";
+    private static final String PREFS_NAME = "swipe_settings";
+    private static final long WRITE_DELAY_MS = 500;
+
+    private static final String KEY_DISTANCE = "distance";
+    private static final String KEY_DURATION = "duration";
+    private static final String KEY_ANCHOR_X = "anchor_x";
+    private static final String KEY_ANCHOR_Y = "anchor_y";
+    private static final String KEY_OVERLAY_X = "overlay_x";
+    private static final String KEY_OVERLAY_Y = "overlay_y";
+    private static final String KEY_ADAPTIVE = "adaptive";
+    private static final String KEY_HOLD_SPEED = "hold_speed";
+    private static final String KEY_KEY_TRIGGER = "key_trigger";
+    private static final String KEY_HIDE_OVERLAY = "hide_overlay";
+    private static final String KEY_FLAT_OVERLAY = "flat_overlay";
+    private static final String KEY_STROKE_PROFILE = "stroke_profile";
+    private static final String KEY_AUTO_ADVANCE_INTERVAL = "auto_advance_interval";
+
+    private static SettingsStore instance;
+
+    private final Context context;
+    private final Handler ioHandler;
+    private final CopyOnWriteArrayList<Registration> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile SwipeSettings settings = SwipeSettings.DEFAULTS;
+    private volatile boolean loaded;
+    // Campos cambiados antes de terminar la carga (SwipeSettings.FIELD_*): solo esos se aplican
+    // encima de lo leído, el resto viene del disco
+    private int fieldsChangedBeforeLoad;
+
+    private long writeCount;
+    private long changeCount;
+
+    private final Runnable writeRunnable = new Runnable() {
+        @Override
+        public void run() {
+            write(settings);
+        }
+    };
+
+    static synchronized SettingsStore get(Context context) {
+        if (instance == null) {
+            instance = new SettingsStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SettingsStore(Context context) {
+        this.context = context;
+        HandlerThread ioThread = new HandlerThread("SettingsIO", Process.THREAD_PRIORITY_BACKGROUND);
+        ioThread.start();
+        ioHandler = new Handler(ioThread.getLooper());
+        ioHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    SwipeSettings getSettings() {
+        return settings;
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    // Hilo de fondo para escrituras a disco; lo comparten otras escrituras del servicio
+    Handler getIoHandler() {
+        return ioHandler;
+    }
+
+    // Si la carga ya terminó, el listener recibe el valor actual inmediatamente
+    void addListener(Listener listener, Handler handler) {
+        Registration registration = new Registration(listener, handler);
+        listeners.add(registration);
+        if (loaded) {
+            registration.post(settings);
+        }
+    }
+
+    void removeListener(Listener listener) {
+        for (Registration registration : listeners) {
+            if (registration.listener == listener) {
+                listeners.remove(registration);
+            }
+        }
+    }
+
+    void setSwipe(float distance, long duration) {
+        synchronized (this) {
+            update(settings.withSwipe(distance, duration), SwipeSettings.FIELD_SWIPE);
+        }
+    }
+
+    void setAnchor(float fractionX, float fractionY) {
+        synchronized (this) {
+            update(settings.withAnchor(fractionX, fractionY), SwipeSettings.FIELD_ANCHOR);
+        }
+    }
+
+    void clearAnchor() {
+        synchronized (this) {
+            update(settings.withoutAnchor(), SwipeSettings.FIELD_ANCHOR);
+        }
+    }
+
+    void setAdaptive(boolean adaptive) {
+        synchronized (this) {
+            update(settings.withAdaptive(adaptive), SwipeSettings.FIELD_ADAPTIVE);
+        }
+    }
+
+    void setHoldSpeed(float holdSpeed) {
+        synchronized (this) {
+            update(settings.withHoldSpeed(holdSpeed), SwipeSettings.FIELD_HOLD_SPEED);
+        }
+    }
+
+    void setKeyTrigger(boolean keyTrigger, boolean hideOverlay) {
+        synchronized (this) {
+            update(settings.withKeyTrigger(keyTrigger, hideOverlay), SwipeSettings.FIELD_KEY_TRIGGER);
+        }
+    }
+
+    void setFlatOverlay(boolean flatOverlay) {
+        synchronized (this) {
+            update(settings.withFlatOverlay(flatOverlay), SwipeSettings.FIELD_FLAT_OVERLAY);
+        }
+    }
+
+    void setStrokeProfile(int strokeProfile) {
+        synchronized (this) {
+            update(settings.withStrokeProfile(strokeProfile), SwipeSettings.FIELD_STROKE_PROFILE);
+        }
+    }
+
+    void setAutoAdvanceInterval(long intervalMs) {
+        synchronized (this) {
+            update(settings.withAutoAdvanceInterval(intervalMs), SwipeSettings.FIELD_AUTO_ADVANCE);
+        }
+    }
+
+    void setOverlayPosition(int x, int y) {
+        synchronized (this) {
+            if (x == settings.overlayX && y == settings.overlayY) {
+                return;
+            }
+            update(settings.withOverlayPosition(x, y), SwipeSettings.FIELD_OVERLAY_POSITION);
+        }
+    }
+
+    long getWriteCount() {
+        return writeCount;
+    }
+
+    long getChangeCount() {
+        return changeCount;
+    }
+
+    // Llamar con el monitor tomado
+    private void update(SwipeSettings next, int fields) {
+        settings = next;
+        changeCount++;
+        if (!loaded) {
+            fieldsChangedBeforeLoad |= fields;
+        }
+        publish(next);
+        ioHandler.removeCallbacks(writeRunnable);
+        ioHandler.postDelayed(writeRunnable, WRITE_DELAY_MS);
+    }
+
+    private void load() {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        SwipeSettings stored = new SwipeSettings(
+                prefs.getFloat(KEY_DISTANCE, SwipeSettings.DEFAULT_DISTANCE),
+                prefs.getLong(KEY_DURATION, SwipeSettings.DEFAULT_DURATION),
+                prefs.getFloat(KEY_ANCHOR_X, Float.NaN),
+                prefs.getFloat(KEY_ANCHOR_Y, Float.NaN),
+                prefs.getInt(KEY_OVERLAY_X, SwipeSettings.UNSET_POSITION),
+                prefs.getInt(KEY_OVERLAY_Y, SwipeSettings.UNSET_POSITION),
+                prefs.getBoolean(KEY_ADAPTIVE, false),
+                prefs.getFloat(KEY_HOLD_SPEED, SwipeSettings.DEFAULT_HOLD_SPEED),
+                prefs.getBoolean(KEY_KEY_TRIGGER, false),
+                prefs.getBoolean(KEY_HIDE_OVERLAY, false),
+                prefs.getBoolean(KEY_FLAT_OVERLAY, false),
+                prefs.getInt(KEY_STROKE_PROFILE, StrokeProfile.LINEAR),
+                prefs.getLong(KEY_AUTO_ADVANCE_INTERVAL, SwipeSettings.DEFAULT_AUTO_ADVANCE_INTERVAL));
+        synchronized (this) {
+            settings = stored.withFields(settings, fieldsChangedBeforeLoad);
+            fieldsChangedBeforeLoad = 0;
+            loaded = true;
+            publish(settings);
+        }
+        Log.d(TAG, "Settings loaded: " + settings);
+    }
+
+    private void write(SwipeSettings snapshot) {
+        SharedPreferences.Editor editor = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit();
+        editor.putFloat(KEY_DISTANCE, snapshot.distance);
+        editor.putLong(KEY_DURATION, snapshot.duration);
+        editor.putFloat(KEY_ANCHOR_X, snapshot.anchorFractionX);
+        editor.putFloat(KEY_ANCHOR_Y, snapshot.anchorFractionY);
+        editor.putInt(KEY_OVERLAY_X, snapshot.overlayX);
+        editor.putInt(KEY_OVERLAY_Y, snapshot.overlayY);
+        editor.putBoolean(KEY_ADAPTIVE, snapshot.adaptive);
+        editor.putFloat(KEY_HOLD_SPEED, snapshot.holdSpeed);
+        editor.putBoolean(KEY_KEY_TRIGGER, snapshot.keyTrigger);
+        editor.putBoolean(KEY_HIDE_OVERLAY, snapshot.hideOverlay);
+        editor.putBoolean(KEY_FLAT_OVERLAY, snapshot.flatOverlay);
+        editor.putInt(KEY_STROKE_PROFILE, snapshot.strokeProfile);
+        editor.putLong(KEY_AUTO_ADVANCE_INTERVAL, snapshot.autoAdvanceInterval);
+        // Ya estamos en el hilo de E/S: commit síncrono, sin encolar otra escritura
+        if (!editor.commit()) {
+            Log.w(TAG, "Failed to write settings");
+        }
+        writeCount++;
+    }
+
+    private void publish(SwipeSettings snapshot) {
+        for (Registration registration : listeners) {
+            registration.post(snapshot);
+        }
+    }
+
+    private final class Registration {
+        final Listener listener;
+        final Handler handler;
+
+        Registration(Listener listener, Handler handler) {
+            this.listener = listener;
+            this.handler = handler;
+        }
+
+        void post(final SwipeSettings snapshot) {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    // No entregar a listeners que se quitaron mientras el aviso estaba en cola
+                    if (listeners.contains(Registration.this)) {
+                        listener.onSettingsChanged(snapshot);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.swipehelper.floatingswipe;
+
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import com.swipehelper.floatingswipe.core.StartupPhases;
+
+// Marcas de tiempo del arranque del overlay, desde startForegroundService hasta su primer frame.
+// Cada fase además abre una sección de systrace (Trace.beginSection) para verla en Perfetto.
+// Las cuentas por fase están en StartupPhases (probadas en la JVM); aquí solo el reloj y el log.
+// Solo se usa desde el hilo principal; dump() lee los valores sin sincronizar.
+final class StartupTrace {
+
+    static final int REQUESTED = StartupPhases.REQUESTED;
+    static final int SERVICE_CREATE = StartupPhases.SERVICE_CREATE;
+    static final int VIEW_BUILT = StartupPhases.VIEW_BUILT;
+    static final int WINDOW_ADDED = StartupPhases.WINDOW_ADDED;
+    static final int FOREGROUND = StartupPhases.FOREGROUND;
+    static final int FIRST_FRAME = StartupPhases.FIRST_FRAME;
+
+    private static final String TAG = "StartupTrace";
+
+    private static final StartupPhases phases = new StartupPhases();
+
+    private StartupTrace() {
+    }
+
+    static void requested() {
+        phases.requested(SystemClock.elapsedRealtimeNanos());
+    }
+
+    static void serviceCreated() {
+        phases.serviceCreated(SystemClock.elapsedRealtimeNanos());
+    }
+
+    static void mark(int phase) {
+        phases.mark(phase, SystemClock.elapsedRealtimeNanos());
+    }
+
+    static void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    static void endSection() {
+        Trace.endSection();
+    }
+
+    // Cierra el arranque en curso y lo registra en el log; avisa si se pasa del presupuesto
+    static void finish() {
+        phases.finish(SystemClock.elapsedRealtimeNanos());
+        StringBuilder line = new StringBuilder("Overlay cold start ");
+        phases.append(line);
+        if (phases.isOverBudget(StartupPhases.BUDGET_NANOS)) {
+            line.append(" over budget of ").append(StartupPhases.BUDGET_NANOS / 1_000_000).append("ms");
+            Log.w(TAG, line.toString());
+        } else {
+            Log.i(TAG, line.toString());
+        }
+    }
+
+    static long getLastStartupNanos() {
+        return phases.getLastStartupNanos();
+    }
+
+    static void append(StringBuilder out) {
+        phases.append(out);
+    }
+}
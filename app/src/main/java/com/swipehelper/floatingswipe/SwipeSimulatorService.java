@@ -1,42 +1,434 @@
 package com.swipehelper.floatingswipe;
 
 import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.AccessibilityServiceInfo;
 import android.accessibilityservice.GestureDescription;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.content.res.Configuration;
 import android.graphics.Path;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Debug;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.DisplayMetrics;
 import android.util.Log;
+import android.view.KeyEvent;
+import android.view.ViewConfiguration;
 import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.Toast;
 
+import com.swipehelper.floatingswipe.core.AdaptiveTuner;
+import com.swipehelper.floatingswipe.core.AutoAdvanceSchedule;
+import com.swipehelper.floatingswipe.core.BackendStats;
+import com.swipehelper.floatingswipe.core.CapturedEvent;
+import com.swipehelper.floatingswipe.core.EventCaptureWriter;
+import com.swipehelper.floatingswipe.core.EventRouter;
+import com.swipehelper.floatingswipe.core.GesturePipeline;
+import com.swipehelper.floatingswipe.core.GestureProfile;
+import com.swipehelper.floatingswipe.core.GestureProfileTable;
+import com.swipehelper.floatingswipe.core.MacroRecord;
+import com.swipehelper.floatingswipe.core.MacroWriter;
+import com.swipehelper.floatingswipe.core.SettleTimer;
+import com.swipehelper.floatingswipe.core.StrokeProfile;
+import com.swipehelper.floatingswipe.core.SwipeCommand;
+import com.swipehelper.floatingswipe.core.SwipeCommandChannel;
+import com.swipehelper.floatingswipe.core.SwipeGeometry;
+import com.swipehelper.floatingswipe.core.SwipeMetrics;
+import com.swipehelper.floatingswipe.core.SwipeSettings;
+import com.swipehelper.floatingswipe.core.TraceEvent;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class SwipeSimulatorService extends AccessibilityService {
 
     private static final String TAG = "SwipeSimulatorService";
-    private BroadcastReceiver swipeCommandReceiver;
+
+    // Hilo dedicado a los gestos: recibe comandos, construye gestos y procesa los callbacks.
+    // Todo el estado marcado como "hilo de gestos" solo se toca desde aquí, así los bloqueos
+    // del hilo principal (Toasts, eventos de accesibilidad...) no retrasan los swipes.
+    private HandlerThread dispatchThread;
+    private Handler dispatchHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable drainCommands = new Runnable() {
+        @Override
+        public void run() {
+            EventTrace.beginSection(EventTrace.SECTION_COMMAND);
+            try {
+                SwipeCommandChannel.get().drain(commandConsumer);
+            } finally {
+                EventTrace.endSection();
+            }
+        }
+    };
+
+    // Canal en proceso con FloatingButtonService
+    private final Runnable commandWakeup = new Runnable() {
+        @Override
+        public void run() {
+            dispatchHandler.post(drainCommands);
+        }
+    };
+
+    private final SwipeCommandChannel.Consumer commandConsumer = new SwipeCommandChannel.Consumer() {
+        @Override
+        public void onCommand(int command, long tapNanos) {
+            executeCommand(command, tapNanos);
+        }
+    };
     
-    // Coordenadas para el swipe (centro de la pantalla)
+    // Coordenadas para el swipe - hilo de gestos.
+    // Prioridad: punto fijo del perfil (o de los ajustes), centro del contenedor de reels,
+    // centro de pantalla.
     private float screenCenterX;
     private float screenCenterY;
+    private float displayCenterX;
+    private float displayCenterY;
+    private boolean manualAnchor = false;
+
+    // Contenedor desplazable de la app objetivo (los eventos lo invalidan, el hilo de gestos lo refresca)
+    private final ReelContainerTracker containerTracker = new ReelContainerTracker();
+    // El refresco (hasta MAX_NODES_VISITED nodos, llamadas binder) va en un Runnable programado
+    // tras los eventos, no en el toque: los eventos que llegan mientras está pendiente se agrupan.
+    // Un cambio de ventana busca enseguida, para que el primer toque ya tenga el contenedor.
+    private static final long CONTAINER_REFRESH_DELAY_MS = 100;
+    private final AtomicBoolean containerRefreshPosted = new AtomicBoolean();
+    private final Runnable containerRefresh = new Runnable() {
+        @Override
+        public void run() {
+            containerRefreshPosted.set(false);
+            containerSearch.run();
+        }
+    };
+    private final Runnable containerSearch = new Runnable() {
+        @Override
+        public void run() {
+            // Fuera de las apps objetivo no hay nada que buscar; al volver se programa otro
+            if (targetInForeground) {
+                refreshAnchorFromContainer();
+            }
+        }
+    };
     
-    // Distancia del swipe (pequeña para simular scroll de reels)
-    private static final float SWIPE_DISTANCE = 200f;
-    private static final long SWIPE_DURATION = 100; // ms
+    // Distancia, duración y punto del swipe; llegan de SettingsStore - hilo de gestos
+    private SwipeSettings settings = SwipeSettings.DEFAULTS;
+
+    // Ajuste automático de distancia/duración si settings.adaptive (solo el perfil de los
+    // ajustes del usuario) - hilo de gestos
+    private final AdaptiveTuner adaptiveTuner = new AdaptiveTuner(SwipeSettings.DEFAULT_DISTANCE,
+            SwipeSettings.DEFAULT_DURATION);
+    // El hilo principal solo reenvía un TYPE_VIEW_SCROLLED por intento pendiente de confirmar
+    private final AtomicBoolean awaitingScrollConfirmation = new AtomicBoolean();
+
+    private final Runnable scrollConfirmed = new Runnable() {
+        @Override
+        public void run() {
+            if (adaptiveTuner.onScrollConfirmed(SystemClock.uptimeMillis())) {
+                applyTunedParameters();
+            }
+        }
+    };
+
+    private final Runnable scrollConfirmTimeout = new Runnable() {
+        @Override
+        public void run() {
+            if (adaptiveTuner.onConfirmTimeout(SystemClock.uptimeMillis())) {
+                applyTunedParameters();
+            }
+            awaitingScrollConfirmation.set(adaptiveTuner.isAwaitingConfirmation());
+        }
+    };
+
+    // Tiempo hasta que la lista se asienta por forma de trazo - hilo principal.
+    // El hilo de gestos publica el envío en los volátiles y avisa con settleStart.
+    private final SettleTimer settleTimer = new SettleTimer();
+    private volatile int settleStrokeProfile;
+    private volatile long settleDispatchNanos;
+
+    private final Runnable settleStart = new Runnable() {
+        @Override
+        public void run() {
+            settleTimer.start(settleStrokeProfile, settleDispatchNanos);
+            mainHandler.removeCallbacks(settleQuiet);
+            mainHandler.postDelayed(settleQuiet, SettleTimer.FIRST_EVENT_TIMEOUT_NANOS / 1_000_000L);
+        }
+    };
+
+    private final Runnable settleQuiet = new Runnable() {
+        @Override
+        public void run() {
+            settleTimer.finish();
+        }
+    };
+
+    private final SettingsStore.Listener settingsListener = new SettingsStore.Listener() {
+        @Override
+        public void onSettingsChanged(SwipeSettings next) {
+            applySettings(next);
+        }
+    };
+
+    // Pausa entre trazos cuando varios toques se fusionan en un mismo gesto
+    private static final long STROKE_GAP = 50; // ms
+    // Margen del zigzag de StrokeProfile.EASED por debajo del touch slop
+    private static final float WOBBLE_SLOP_MARGIN_DP = 2f;
+    private static final int PIPELINE_CAPACITY = 8;
+
+    // Los toques se encolan aquí y solo se envía un gesto cuando terminó el anterior - hilo de gestos
+    private GesturePipeline gesturePipeline;
+
+    // Perfiles por app (punto, distancia, duración, backend) - hilo de gestos.
+    // Cada perfil tiene sus gestos construidos de antemano en profileCaches; al cambiar de app
+    // solo cambia el índice activo y la caché a la que apunta el dispatcher.
+    private static final GestureProfileTable PROFILES = GestureProfileTable.createDefault();
+    private int activeProfileIndex = 0;
+    private GestureProfile activeProfile = PROFILES.get(0);
+    private GestureCache[] profileCaches;
+    // Último centro usado por cada perfil de punto automático (el del contenedor de esa app)
+    private final float[] profileCenterX = new float[PROFILES.size()];
+    private final float[] profileCenterY = new float[PROFILES.size()];
+    private AccessibilityGestureDispatcher gestureDispatcher;
+
+    // Perfil pedido por el último cambio de ventana; lo escribe el hilo principal
+    private volatile int pendingProfileIndex = 0;
+    private final Runnable applyPendingProfile = new Runnable() {
+        @Override
+        public void run() {
+            applyProfile(pendingProfileIndex);
+        }
+    };
+
+    // Gestos precalculados del perfil activo para la geometría actual - hilo de gestos
+    private GestureCache gestureCache;
+
+    // Backends de desplazamiento: acción de nodo si el contenedor la admite, si no gesto sintético
+    private GestureScrollBackend gestureBackend;
+    private NodeActionScrollBackend nodeActionBackend;
+    private boolean preferNodeActions = true;
+
+    // Avance automático - hilo de gestos. Usa Handler.postAtTime (reloj uptime), así que no
+    // necesita WAKE_LOCK: con la pantalla apagada o fuera de las apps objetivo se pausa.
+    // El periodo es settings.autoAdvanceInterval.
+    private final AutoAdvanceSchedule autoAdvanceSchedule = new AutoAdvanceSchedule();
+    // Única fuente del estado: el overlay lo lee de ServiceStateRepository
+    private boolean autoAdvanceEnabled = false;
+    private boolean screenInteractive = true;
+    private boolean targetInForeground = true;
+    private BroadcastReceiver screenStateReceiver;
+
+    private final Runnable autoAdvanceTick = new Runnable() {
+        @Override
+        public void run() {
+            onAutoAdvanceTick();
+        }
+    };
+
+    private final Runnable markTargetForeground = new Runnable() {
+        @Override
+        public void run() {
+            targetInForeground = true;
+            updateAutoAdvance();
+            scheduleContainerRefresh();
+        }
+    };
+
+    private final Runnable markTargetBackground = new Runnable() {
+        @Override
+        public void run() {
+            targetInForeground = false;
+            updateAutoAdvance();
+        }
+    };
+
+    // App objetivo en primer plano según TYPE_WINDOW_STATE_CHANGED - hilo principal.
+    // Decide la hibernación del overlay (ServiceStateRepository) y los eventos que se piden:
+    // fuera de la app solo cambios de ventana, así el resto de apps no genera trabajo aquí.
+    private static final int TARGET_EVENT_TYPES = AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED
+            | AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED | AccessibilityEvent.TYPE_VIEW_SCROLLED;
+    // Un cambio de ventana de otra app puede ser un diálogo o el teclado encima de la objetivo:
+    // se confirma mirando la ventana activa pasado este margen
+    private static final long LEAVE_CHECK_DELAY_MS = 500;
+    private boolean targetWindowActive = true;
+    // Perfil pedido al hilo de gestos por última vez
+    private int requestedProfileIndex = 0;
+
+    private final Runnable checkForeground = new Runnable() {
+        @Override
+        public void run() {
+            onForegroundProfile(PROFILES.indexOf(getActiveWindowPackage()), System.nanoTime());
+        }
+    };
+
+    // Captura de los eventos de accesibilidad para reproducirlos fuera del teléfono
+    // (EventReplayBenchmark) - hilo principal. Se activa con dumpsys en builds de depuración
+    // (ver dump()); pedir el nodo
+    // origen de cada evento es una llamada binder, así que solo se hace mientras se captura.
+    private static final String CAPTURE_FILE_NAME = "events.swc";
+    private EventCaptureWriter eventCapture;
+    private final CapturedEvent capturedEvent = new CapturedEvent();
+    private final Rect captureBounds = new Rect();
+
+    // Grabación y reproducción de macros - hilo de gestos
+    private static final String MACRO_FILE_NAME = "macro.swm";
+    private MacroWriter macroWriter;
+    private long macroStartNanos;
+    private final MacroRecord macroRecord = new MacroRecord();
+    private GestureMacroPlayer macroPlayer;
+
+    // La reproducción no pasa por el pipeline: cada registro sale como un gesto propio en su
+    // momento, sin fusionarse con los de alrededor, pero nunca encima del gesto anterior (lo
+    // cancelaría y una ráfaga de N toques no avanzaría N reels). Mientras dura el pipeline está
+    // en pausa.
+    private final GestureMacroPlayer.Target macroTarget = new GestureMacroPlayer.Target() {
+        @Override
+        public boolean isReady() {
+            return isGestureSlotFree();
+        }
+
+        @Override
+        public void onMacroCommand(int command, long scheduledNanos) {
+            if ((command == SwipeCommand.SWIPE_UP || command == SwipeCommand.SWIPE_DOWN) && gestureCache != null) {
+                dispatchPlaybackGesture(gestureCache.get(command, 1), scheduledNanos);
+            }
+        }
+
+        @Override
+        public void onMacroStroke(float startX, float startY, float endX, float endY, long duration,
+                                  long scheduledNanos) {
+            if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
+                dispatchPlaybackGesture(createCustomStroke(startX, startY, endX, endY, duration), scheduledNanos);
+            }
+        }
+
+        @Override
+        public void onMacroFinished() {
+            updatePipelinePaused();
+            Log.d(TAG, "Macro playback finished");
+        }
+    };
+
+    // Gestos fuera del pipeline (trazo personalizado o de una macro) - hilo de gestos
+    private boolean externalGestureInFlight;
+    // Trazo personalizado esperando a que termine el gesto en curso
+    private boolean customStrokePending;
+    private float customStartX;
+    private float customStartY;
+    private float customEndX;
+    private float customEndY;
+    private long customDuration;
+    private final float[] customPoints = new float[4];
+
+    // Momento del envío en curso - hilo de gestos
+    private long inFlightDispatchNanos;
+
+    // Mantener pulsado: drag continuo (API 26+) o, si no, swipes encadenados - hilo de gestos
+    private ContinuousScroller continuousScroller;
+    private int holdCommand = SwipeCommand.NONE;
+    // El arrastre espera a que termine el gesto del pipeline que estaba en curso
+    private boolean holdStartPending;
+    private long holdStartNanos;
+    private long holdItems;
+
+    // Sesión de toques sueltos para comparar elementos/s con el modo mantener pulsado - hilo de gestos
+    private long tapSessionStartNanos;
+    private long tapSessionItems;
+
+    private final ContinuousScroller.Listener holdListener = new ContinuousScroller.Listener() {
+        @Override
+        public void onDragFinished(boolean advanced) {
+            if (advanced) {
+                holdItems++;
+            }
+        }
+
+        @Override
+        public void onStopped() {
+            SwipeMetrics.get().holdThroughput.recordSession(holdItems, System.nanoTime() - holdStartNanos);
+            holdCommand = SwipeCommand.NONE;
+            // Lo que esperaba al arrastre (y los toques que llegaron mientras) sale ahora
+            onGestureSlotFree();
+            updatePipelinePaused();
+        }
+    };
+
+    // Disparador por teclas (settings.keyTrigger) - hilo principal, donde llega onKeyEvent.
+    // El filtrado se pide en tiempo de ejecución: sin el ajuste las teclas no pasan por el servicio.
+    private boolean keyFilterEnabled;
+    // Tecla cuyo ACTION_DOWN se consumió: su ACTION_UP también se consume
+    private int consumedKeyCode = KeyEvent.KEYCODE_UNKNOWN;
+    private long keyEventsConsumed;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        dispatchThread = new HandlerThread("SwipeDispatch", Process.THREAD_PRIORITY_DISPLAY);
+        dispatchThread.start();
+        dispatchHandler = new Handler(dispatchThread.getLooper());
+    }
 
     @Override
     public void onServiceConnected() {
         super.onServiceConnected();
         Log.d(TAG, "Swipe Simulator Service Connected");
         
-        // Obtener dimensiones de la pantalla
+        // Obtener dimensiones de la pantalla y preparar el pipeline en el hilo de gestos
         DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
-        screenCenterX = displayMetrics.widthPixels / 2f;
-        screenCenterY = displayMetrics.heightPixels / 2f;
-        
-        // Registrar el receiver para comandos de swipe
-        registerSwipeCommandReceiver();
+        final int width = displayMetrics.widthPixels;
+        final int height = displayMetrics.heightPixels;
+        // El zigzag de EASED se queda por debajo del touch slop para no leerse como arrastre lateral
+        final float maxWobble = Math.max(0f, ViewConfiguration.get(this).getScaledTouchSlop()
+                - WOBBLE_SLOP_MARGIN_DP * displayMetrics.density);
+        dispatchHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                updateScreenCenter(width, height);
+
+                int maxStrokes = getMaxStrokesPerGesture();
+                gesturePipeline = new GesturePipeline(gestureSink, PIPELINE_CAPACITY, maxStrokes);
+                if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
+                    profileCaches = new GestureCache[PROFILES.size()];
+                    for (int i = 0; i < profileCaches.length; i++) {
+                        profileCaches[i] = new GestureCache(maxWobble);
+                    }
+                    gestureCache = profileCaches[activeProfileIndex];
+                    prebuildProfileCaches();
+                    gestureDispatcher = new AccessibilityGestureDispatcher(SwipeSimulatorService.this, gestureCache,
+                            dispatchHandler);
+                    gestureBackend = new GestureScrollBackend(gestureDispatcher, scrollCallback);
+                }
+                if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
+                    continuousScroller = new ContinuousScroller(SwipeSimulatorService.this, dispatchHandler,
+                            holdListener);
+                }
+                nodeActionBackend = new NodeActionScrollBackend(containerTracker, dispatchHandler, scrollCallback);
+                macroPlayer = new GestureMacroPlayer(dispatchHandler, macroTarget);
+                // Primera búsqueda del contenedor antes del primer toque
+                scheduleContainerRefresh();
+            }
+        });
+
+        // Los ajustes se cargan en segundo plano; hasta entonces se usan los valores por defecto
+        SettingsStore.get(this).addListener(settingsListener, dispatchHandler);
+
+        // Conectar el canal en proceso (única vía de los comandos del overlay)
+        SwipeCommandChannel.get().attach(commandWakeup);
+        registerScreenStateReceiver();
+        ServiceStateRepository.get(this).setAccessibilityConnected(true);
+        // Estado inicial del primer plano; después lo mantienen los eventos de ventana
+        mainHandler.post(checkForeground);
         
         Toast.makeText(this, "Swipe Simulator activado", Toast.LENGTH_SHORT).show();
     }
@@ -44,20 +436,415 @@ public class SwipeSimulatorService extends AccessibilityService {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        if (swipeCommandReceiver != null) {
+        SwipeCommandChannel.get().detach(commandWakeup);
+        mainHandler.removeCallbacks(checkForeground);
+        mainHandler.removeCallbacks(settleStart);
+        mainHandler.removeCallbacks(settleQuiet);
+        stopEventCapture();
+        SettingsStore.get(this).removeListener(settingsListener);
+        ServiceStateRepository.get(this).setAccessibilityConnected(false);
+        if (screenStateReceiver != null) {
             try {
-                unregisterReceiver(swipeCommandReceiver);
+                unregisterReceiver(screenStateReceiver);
             } catch (IllegalArgumentException e) {
                 Log.e(TAG, "Receiver not registered", e);
             }
         }
+        dispatchHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                setAutoAdvanceEnabled(false);
+                stopMacroRecording();
+                stopHold();
+                if (macroPlayer != null) {
+                    macroPlayer.stop();
+                }
+                if (gesturePipeline != null) {
+                    gesturePipeline.clear();
+                    logPipelineStats();
+                }
+                dispatchHandler.removeCallbacks(containerRefresh);
+                dispatchHandler.removeCallbacks(containerSearch);
+                containerTracker.release();
+            }
+        });
+        dispatchThread.quitSafely();
         Log.d(TAG, "Swipe Simulator Service Destroyed");
     }
 
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // Rotación o cambio de pantalla: recalcular el centro y los gestos
+        containerTracker.onWindowStateChanged();
+        scheduleContainerRefresh();
+        DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
+        final int width = displayMetrics.widthPixels;
+        final int height = displayMetrics.heightPixels;
+        // El zigzag de EASED se queda por debajo del touch slop para no leerse como arrastre lateral
+        final float maxWobble = Math.max(0f, ViewConfiguration.get(this).getScaledTouchSlop()
+                - WOBBLE_SLOP_MARGIN_DP * displayMetrics.density);
+        dispatchHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                updateScreenCenter(width, height);
+                prebuildProfileCaches();
+            }
+        });
+    }
+
+    private void updateScreenCenter(int width, int height) {
+        if (width / 2f != displayCenterX || height / 2f != displayCenterY) {
+            // Los contenedores de las otras apps ya no tienen esos límites
+            for (int i = 0; i < profileCenterX.length; i++) {
+                profileCenterX[i] = width / 2f;
+                profileCenterY[i] = height / 2f;
+            }
+        }
+        displayCenterX = width / 2f;
+        displayCenterY = height / 2f;
+        if (manualAnchor) {
+            screenCenterX = activeProfile.anchorFractionX(settings) * width;
+            screenCenterY = activeProfile.anchorFractionY(settings) * height;
+        } else if (!containerTracker.hasContainer()) {
+            screenCenterX = displayCenterX;
+            screenCenterY = displayCenterY;
+        }
+    }
+
+    private void applySettings(SwipeSettings next) {
+        boolean gestureChanged = !next.sameGesture(settings);
+        if (next.keyTrigger != settings.keyTrigger) {
+            final boolean enabled = next.keyTrigger;
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    setKeyFiltering(enabled);
+                }
+            });
+        }
+        boolean intervalChanged = next.autoAdvanceInterval != settings.autoAdvanceInterval;
+        settings = next;
+        if (intervalChanged && autoAdvanceSchedule.isRunning()) {
+            // El nuevo periodo cuenta desde ahora
+            autoAdvanceSchedule.stop(SystemClock.uptimeMillis());
+            dispatchHandler.removeCallbacks(autoAdvanceTick);
+            updateAutoAdvance();
+        }
+        if (!gestureChanged) {
+            // Solo cambió la posición del overlay
+            return;
+        }
+
+        applyAnchor();
+        // Los ajustes del usuario son el nuevo punto de partida del ajuste automático
+        adaptiveTuner.reset(next.distance, next.duration, SystemClock.uptimeMillis());
+        applyTunedParameters();
+        Log.d(TAG, "Settings applied: " + next);
+    }
+
+    // Llega del hilo principal al cambiar la app en primer plano
+    private void applyProfile(int index) {
+        if (index == activeProfileIndex) {
+            return;
+        }
+        profileCenterX[activeProfileIndex] = screenCenterX;
+        profileCenterY[activeProfileIndex] = screenCenterY;
+        activeProfileIndex = index;
+        activeProfile = PROFILES.get(index);
+        preferNodeActions = activeProfile.preferNodeActions;
+        if (profileCaches != null) {
+            gestureCache = profileCaches[index];
+            gestureDispatcher.setGestureCache(gestureCache);
+        }
+        if (Float.isNaN(activeProfile.anchorFractionX(settings))) {
+            screenCenterX = profileCenterX[index];
+            screenCenterY = profileCenterY[index];
+        }
+        applyAnchor();
+        // Los gestos ya están construidos: solo se ajusta el límite de trazos del pipeline
+        if (gesturePipeline != null) {
+            gesturePipeline.setMaxStrokes(getMaxStrokesPerGesture());
+        }
+        rebuildGestureCache();
+        Log.d(TAG, "Gesture profile: " + activeProfile);
+    }
+
+    // Punto fijo del perfil activo o, si es automático, el del contenedor
+    private void applyAnchor() {
+        boolean wasManual = manualAnchor;
+        manualAnchor = !Float.isNaN(activeProfile.anchorFractionX(settings));
+        if (manualAnchor) {
+            updateScreenCenter((int) (displayCenterX * 2), (int) (displayCenterY * 2));
+        } else if (wasManual) {
+            // Volver al punto automático: buscar de nuevo el contenedor
+            containerTracker.onWindowStateChanged();
+            scheduleContainerRefresh();
+            screenCenterX = displayCenterX;
+            screenCenterY = displayCenterY;
+        }
+    }
+
+    // El ajuste automático solo se aplica al perfil que sigue los ajustes del usuario
+    private boolean adaptiveActive() {
+        return settings.adaptive && activeProfile.userSettings;
+    }
+
+    // Con el ajuste automático activo mandan sus valores; si no, los del perfil
+    private float profileDistance(GestureProfile profile) {
+        return settings.adaptive && profile.userSettings ? adaptiveTuner.getDistance() : profile.distance(settings);
+    }
+
+    private long profileDuration(GestureProfile profile) {
+        return settings.adaptive && profile.userSettings ? adaptiveTuner.getDuration() : profile.duration(settings);
+    }
+
+    private float gestureDistance() {
+        return profileDistance(activeProfile);
+    }
+
+    private long gestureDuration() {
+        return profileDuration(activeProfile);
+    }
+
+    private void applyTunedParameters() {
+        if (gesturePipeline != null) {
+            gesturePipeline.setMaxStrokes(getMaxStrokesPerGesture());
+        }
+        prebuildProfileCaches();
+        if (adaptiveActive()) {
+            Log.d(TAG, "Adaptive swipe: " + adaptiveTuner.getDistance() + "px "
+                    + adaptiveTuner.getDuration() + "ms");
+        }
+    }
+
+    // Cualquier hilo; el refresco corre en el hilo de gestos
+    private void scheduleContainerRefresh() {
+        if (containerRefreshPosted.compareAndSet(false, true)) {
+            dispatchHandler.postDelayed(containerRefresh, CONTAINER_REFRESH_DELAY_MS);
+        }
+    }
+
+    // Usar el centro real del contenedor de reels si cambió desde el último refresco.
+    // Solo desde containerRefresh: el toque lee screenCenterX/Y ya calculados.
+    private void refreshAnchorFromContainer() {
+        if (manualAnchor || !containerTracker.refresh(this)) {
+            return;
+        }
+        if (containerTracker.hasContainer()) {
+            screenCenterX = containerTracker.getBounds().exactCenterX();
+            screenCenterY = containerTracker.getBounds().exactCenterY();
+        } else {
+            screenCenterX = displayCenterX;
+            screenCenterY = displayCenterY;
+        }
+        rebuildGestureCache();
+    }
+
+    private void rebuildGestureCache() {
+        if (gestureCache != null
+                && gestureCache.update(screenCenterX, screenCenterY, gestureDistance(), gestureDuration(),
+                        STROKE_GAP, settings.strokeProfile, getMaxStrokesPerGesture(), displayCenterX * 2,
+                        displayCenterY * 2)) {
+            Log.d(TAG, "Gesture cache rebuilt");
+        }
+    }
+
+    // Gestos de todos los perfiles para la pantalla y los ajustes actuales; solo se reconstruye
+    // lo que cambió. Los inactivos de punto automático usan el último centro de su contenedor.
+    private void prebuildProfileCaches() {
+        if (profileCaches == null) {
+            return;
+        }
+        float width = displayCenterX * 2;
+        float height = displayCenterY * 2;
+        for (int i = 0; i < profileCaches.length; i++) {
+            if (i == activeProfileIndex) {
+                continue;
+            }
+            GestureProfile profile = PROFILES.get(i);
+            float fractionX = profile.anchorFractionX(settings);
+            float centerX = Float.isNaN(fractionX) ? profileCenterX[i] : fractionX * width;
+            float centerY = Float.isNaN(fractionX) ? profileCenterY[i] : profile.anchorFractionY(settings) * height;
+            long duration = profileDuration(profile);
+            profileCaches[i].update(centerX, centerY, profileDistance(profile), duration, STROKE_GAP,
+                    settings.strokeProfile, maxStrokesFor(duration), width, height);
+        }
+        rebuildGestureCache();
+    }
+
     @Override
     public void onAccessibilityEvent(AccessibilityEvent event) {
-        // No necesitamos procesar eventos de accesibilidad para este caso de uso
-        // Solo usamos este servicio para simular gestos
+        // Tiempo de CPU solo de una muestra de los eventos (ver SwipeMetrics)
+        boolean sampleCpu = SwipeMetrics.get().onAccessibilityEvent();
+        long cpuStart = sampleCpu ? Debug.threadCpuTimeNanos() : 0;
+
+        // Solo nos suscribimos a los tipos que invalidan el contenedor de reels
+        // (ver accessibility_service_config.xml); aquí solo se marca la caché.
+        long eventNanos = event.getEventTime() * 1_000_000L;
+        if (eventCapture != null) {
+            captureEvent(event, eventNanos);
+        }
+        eventRouter.route(event.getEventType(), event.getPackageName(), eventNanos);
+
+        if (sampleCpu) {
+            SwipeMetrics.get().onAccessibilityEventSampled(Debug.threadCpuTimeNanos() - cpuStart);
+        }
+    }
+
+    private final EventRouter.Target eventTarget = new EventRouter.Target() {
+        @Override
+        public void onWindowStateChanged() {
+            containerTracker.onWindowStateChanged();
+            // Pocos y los que más importan: sin esperar a agruparse
+            dispatchHandler.post(containerSearch);
+        }
+
+        @Override
+        public void onTargetWindow(int profile, long eventNanos) {
+            mainHandler.removeCallbacks(checkForeground);
+            onForegroundProfile(profile, eventNanos);
+        }
+
+        @Override
+        public void onOtherWindow(long eventNanos) {
+            if (targetWindowActive) {
+                mainHandler.removeCallbacks(checkForeground);
+                mainHandler.postDelayed(checkForeground, LEAVE_CHECK_DELAY_MS);
+            }
+        }
+
+        @Override
+        public void onTargetScrolled(long eventNanos) {
+            // Confirmación de que el último gesto movió el contenido (ajuste automático)
+            if (awaitingScrollConfirmation.compareAndSet(true, false)) {
+                dispatchHandler.post(scrollConfirmed);
+            }
+            containerTracker.onWindowContentChanged();
+            scheduleContainerRefresh();
+            onSettleEvent(eventNanos);
+        }
+
+        @Override
+        public void onTargetContentChanged(long eventNanos) {
+            containerTracker.onWindowContentChanged();
+            scheduleContainerRefresh();
+            onSettleEvent(eventNanos);
+        }
+    };
+
+    private final EventRouter eventRouter = new EventRouter(PROFILES, eventTarget);
+
+    // La lista sigue moviéndose: la medición abierta espera otro QUIET_NANOS sin eventos
+    private void onSettleEvent(long eventNanos) {
+        if (!settleTimer.isOpen()) {
+            return;
+        }
+        mainHandler.removeCallbacks(settleQuiet);
+        if (settleTimer.onScrollEvent(eventNanos)) {
+            mainHandler.postDelayed(settleQuiet, SettleTimer.QUIET_NANOS / 1_000_000L);
+        }
+    }
+
+    // Perfil de la app en primer plano (NONE: ninguna app objetivo); hilo principal
+    private void onForegroundProfile(int profile, long eventNanos) {
+        if (profile != GestureProfileTable.NONE && profile != requestedProfileIndex) {
+            requestedProfileIndex = profile;
+            pendingProfileIndex = profile;
+            dispatchHandler.post(applyPendingProfile);
+        }
+        setTargetForeground(profile != GestureProfileTable.NONE, eventNanos);
+    }
+
+    // Llamar desde el hilo principal
+    private void setTargetForeground(boolean foreground, long eventNanos) {
+        if (targetWindowActive == foreground) {
+            return;
+        }
+        targetWindowActive = foreground;
+        updateServiceInfo();
+        // El overlay se reengancha dentro de esta llamada
+        ServiceStateRepository.get(this).setTargetForeground(foreground, eventNanos);
+        dispatchHandler.post(foreground ? markTargetForeground : markTargetBackground);
+        Log.d(TAG, "Target app " + (foreground ? "in foreground" : "left"));
+    }
+
+    // Llamar desde el hilo principal
+    private void setKeyFiltering(boolean enabled) {
+        keyFilterEnabled = enabled;
+        consumedKeyCode = KeyEvent.KEYCODE_UNKNOWN;
+        updateServiceInfo();
+        Log.d(TAG, "Key trigger " + (enabled ? "enabled" : "disabled"));
+    }
+
+    // Tipos de evento y filtrado de teclas según el estado actual; hilo principal
+    private void updateServiceInfo() {
+        AccessibilityServiceInfo info = getServiceInfo();
+        if (info == null) {
+            // Servicio desconectado
+            return;
+        }
+        info.eventTypes = targetWindowActive ? TARGET_EVENT_TYPES : AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED;
+        if (keyFilterEnabled) {
+            info.flags |= AccessibilityServiceInfo.FLAG_REQUEST_FILTER_KEY_EVENTS;
+        } else {
+            info.flags &= ~AccessibilityServiceInfo.FLAG_REQUEST_FILTER_KEY_EVENTS;
+        }
+        setServiceInfo(info);
+    }
+
+    // Teclas de volumen o de un mando Bluetooth: el swipe entra directamente en el canal,
+    // sin pasar por la ventana del overlay. Hilo principal, igual que los clicks del overlay.
+    @Override
+    protected boolean onKeyEvent(KeyEvent event) {
+        if (!keyFilterEnabled) {
+            return false;
+        }
+        int keyCode = event.getKeyCode();
+        int command = keyCommand(keyCode);
+        if (command == SwipeCommand.NONE) {
+            return false;
+        }
+        if (event.getAction() == KeyEvent.ACTION_UP) {
+            if (keyCode != consumedKeyCode) {
+                return false;
+            }
+            consumedKeyCode = KeyEvent.KEYCODE_UNKNOWN;
+            return true;
+        }
+        if (event.getRepeatCount() > 0) {
+            // Autorepetición al mantener la tecla: un swipe por pulsación
+            return keyCode == consumedKeyCode;
+        }
+        // Fuera de la app objetivo las teclas conservan su función (volumen, pista siguiente...).
+        // Basta el flag que mantienen los eventos de ventana: sin llamadas binder por tecla.
+        if (!targetWindowActive) {
+            return false;
+        }
+        consumedKeyCode = keyCode;
+        keyEventsConsumed++;
+        // getEventTime() usa el mismo reloj monótono que System.nanoTime: la latencia incluye
+        // el recorrido del evento por el sistema hasta el servicio
+        SwipeCommandChannel.get().offer(command, event.getEventTime() * 1_000_000L);
+        return true;
+    }
+
+    private static int keyCommand(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.KEYCODE_VOLUME_DOWN:
+            case KeyEvent.KEYCODE_PAGE_DOWN:
+            case KeyEvent.KEYCODE_DPAD_DOWN:
+            case KeyEvent.KEYCODE_MEDIA_NEXT:
+                // Siguiente elemento
+                return SwipeCommand.KEY_SWIPE_UP;
+            case KeyEvent.KEYCODE_VOLUME_UP:
+            case KeyEvent.KEYCODE_PAGE_UP:
+            case KeyEvent.KEYCODE_DPAD_UP:
+            case KeyEvent.KEYCODE_MEDIA_PREVIOUS:
+                return SwipeCommand.KEY_SWIPE_DOWN;
+            default:
+                return SwipeCommand.NONE;
+        }
     }
 
     @Override
@@ -65,120 +852,628 @@ public class SwipeSimulatorService extends AccessibilityService {
         Log.d(TAG, "Swipe Simulator Service Interrupted");
     }
 
-    private void registerSwipeCommandReceiver() {
-        swipeCommandReceiver = new BroadcastReceiver() {
+    private void executeCommand(int command, long tapNanos) {
+        switch (command) {
+            case SwipeCommand.SWIPE_UP:
+            case SwipeCommand.SWIPE_DOWN:
+            case SwipeCommand.KEY_SWIPE_UP:
+            case SwipeCommand.KEY_SWIPE_DOWN:
+                long receivedNanos = System.nanoTime();
+                if (SwipeCommand.isKeySwipe(command)) {
+                    SwipeMetrics.get().onKeyCommandReceived(tapNanos, receivedNanos);
+                } else {
+                    SwipeMetrics.get().onCommandReceived(tapNanos, receivedNanos);
+                }
+                EventTrace.record(TraceEvent.COMMAND_RECEIVED, command, (receivedNanos - tapNanos) / 1000);
+                recordMacroCommand(SwipeCommand.toSwipe(command), tapNanos);
+                if (tapSessionStartNanos == 0) {
+                    tapSessionStartNanos = tapNanos;
+                    tapSessionItems = 0;
+                }
+                // Los comandos de tecla siguen separados en el pipeline para medir su latencia
+                gesturePipeline.submit(command, tapNanos);
+                break;
+            case SwipeCommand.HOLD_UP_START:
+                startHold(SwipeCommand.SWIPE_UP);
+                break;
+            case SwipeCommand.HOLD_DOWN_START:
+                startHold(SwipeCommand.SWIPE_DOWN);
+                break;
+            case SwipeCommand.HOLD_STOP:
+                stopHold();
+                break;
+            case SwipeCommand.MACRO_RECORD_START:
+                startMacroRecording();
+                break;
+            case SwipeCommand.MACRO_RECORD_STOP:
+                stopMacroRecording();
+                break;
+            case SwipeCommand.MACRO_PLAY_TOGGLE:
+                toggleMacroPlayback();
+                break;
+            case SwipeCommand.AUTO_ADVANCE_START:
+            case SwipeCommand.AUTO_ADVANCE_STOP:
+                setAutoAdvanceEnabled(command == SwipeCommand.AUTO_ADVANCE_START);
+                Log.d(TAG, "Auto-advance " + (autoAdvanceEnabled ? "enabled" : "disabled"));
+                break;
+            default:
+                Log.w(TAG, "Unknown swipe command: " + command);
+                break;
+        }
+    }
+
+    private void startHold(int swipeCommand) {
+        if (holdCommand != SwipeCommand.NONE
+                || (continuousScroller != null && continuousScroller.isActive())) {
+            return;
+        }
+        holdCommand = swipeCommand;
+        holdStartNanos = System.nanoTime();
+        holdItems = 0;
+        Log.d(TAG, "Hold scroll " + SwipeCommand.toDirection(swipeCommand) + " started");
+
+        if (continuousScroller != null) {
+            // Cualquier otro gesto cancelaría el arrastre y al revés: los toques se encolan
+            // mientras dura y, si hay un gesto en curso, el arrastre espera a que termine
+            updatePipelinePaused();
+            if (!isGestureSlotFree()) {
+                holdStartPending = true;
+            } else {
+                startContinuousScroll();
+            }
+        } else {
+            // Sin continueStroke: swipes normales uno tras otro, el siguiente al terminar el anterior
+            gesturePipeline.submit(swipeCommand, holdStartNanos);
+        }
+    }
+
+    // Los gestos fuera del pipeline (arrastre continuo, macros, trazos personalizados) y los suyos
+    // se cancelan entre sí: mientras haya alguno, los toques se encolan
+    private void updatePipelinePaused() {
+        boolean holding = holdCommand != SwipeCommand.NONE && continuousScroller != null;
+        boolean external = externalGestureInFlight || customStrokePending
+                || (macroPlayer != null && macroPlayer.isPlaying());
+        gesturePipeline.setPaused(holding || external);
+    }
+
+    // Un gesto nuevo cancela el que esté en curso, sea del pipeline o no
+    private boolean isGestureSlotFree() {
+        return !externalGestureInFlight && !gesturePipeline.isInFlight()
+                && (continuousScroller == null || !continuousScroller.isActive());
+    }
+
+    // Terminó un gesto: sale lo que esperaba, por orden arrastre, trazo personalizado y registro
+    // de la macro; si no queda nada, el pipeline se reanuda
+    private void onGestureSlotFree() {
+        if (!isGestureSlotFree()) {
+            return;
+        }
+        if (holdStartPending) {
+            holdStartPending = false;
+            startContinuousScroll();
+        } else if (customStrokePending) {
+            customStrokePending = false;
+            if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
+                dispatchExternalGesture(createCustomStroke(customStartX, customStartY, customEndX, customEndY,
+                        customDuration));
+            }
+        } else if (macroPlayer != null) {
+            macroPlayer.resume();
+        }
+        updatePipelinePaused();
+    }
+
+    private void startContinuousScroll() {
+        continuousScroller.start(holdCommand, screenCenterX, screenCenterY, gestureDistance(), settings.holdSpeed,
+                displayCenterX * 2, displayCenterY * 2);
+    }
+
+    private void stopHold() {
+        if (holdCommand == SwipeCommand.NONE) {
+            return;
+        }
+        if (holdStartPending) {
+            // Soltado antes de empezar el arrastre
+            holdStartPending = false;
+            holdListener.onStopped();
+            return;
+        }
+        if (continuousScroller != null && continuousScroller.isActive()) {
+            // onStopped registra la sesión cuando se levanta el dedo
+            continuousScroller.stop();
+            return;
+        }
+        if (continuousScroller == null) {
+            SwipeMetrics.get().holdThroughput.recordSession(holdItems, System.nanoTime() - holdStartNanos);
+        }
+        holdCommand = SwipeCommand.NONE;
+    }
+
+    private File getMacroFile() {
+        return new File(getFilesDir(), MACRO_FILE_NAME);
+    }
+
+    private void startMacroRecording() {
+        stopMacroRecording();
+        try {
+            macroWriter = new MacroWriter(getMacroFile());
+            macroStartNanos = System.nanoTime();
+            Log.d(TAG, "Macro recording started");
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot start macro recording", e);
+        }
+    }
+
+    private void stopMacroRecording() {
+        if (macroWriter == null) {
+            return;
+        }
+        try {
+            macroWriter.close();
+            Log.d(TAG, "Macro recording stopped: " + macroWriter.getRecordCount() + " records");
+        } catch (IOException e) {
+            Log.e(TAG, "Error closing macro recording", e);
+        }
+        macroWriter = null;
+    }
+
+    private void recordMacroCommand(int command, long tapNanos) {
+        if (macroWriter == null) {
+            return;
+        }
+        macroRecord.setCommand(tapNanos - macroStartNanos, command);
+        appendMacroRecord();
+    }
+
+    private void appendMacroRecord() {
+        try {
+            macroWriter.append(macroRecord);
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing macro, recording stopped", e);
+            stopMacroRecording();
+        }
+    }
+
+    private void startEventCapture() {
+        stopEventCapture();
+        try {
+            // Los bloques llenos se escriben en el hilo de E/S de los ajustes, no en el principal
+            final Handler ioHandler = SettingsStore.get(this).getIoHandler();
+            eventCapture = new EventCaptureWriter(new File(getFilesDir(), CAPTURE_FILE_NAME), System.nanoTime(),
+                    new Executor() {
+                        @Override
+                        public void execute(Runnable command) {
+                            ioHandler.post(command);
+                        }
+                    });
+            Log.d(TAG, "Event capture started");
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot start event capture", e);
+        }
+    }
+
+    private void stopEventCapture() {
+        if (eventCapture == null) {
+            return;
+        }
+        try {
+            eventCapture.close();
+            Log.d(TAG, "Event capture stopped: " + eventCapture.getEventCount() + " events");
+        } catch (IOException e) {
+            Log.e(TAG, "Error closing event capture", e);
+        }
+        eventCapture = null;
+    }
+
+    private void captureEvent(AccessibilityEvent event, long eventNanos) {
+        capturedEvent.set(event.getEventType(), eventNanos, System.nanoTime(), event.getPackageName(),
+                event.getClassName());
+        AccessibilityNodeInfo source = event.getSource();
+        if (source != null) {
+            source.getBoundsInScreen(captureBounds);
+            capturedEvent.setBounds(captureBounds.left, captureBounds.top, captureBounds.right, captureBounds.bottom);
+            source.recycle();
+        }
+        try {
+            if (!eventCapture.append(capturedEvent)) {
+                Log.w(TAG, "Event capture full, stopping");
+                stopEventCapture();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing event capture, capture stopped", e);
+            stopEventCapture();
+        }
+    }
+
+    private void toggleMacroPlayback() {
+        if (macroPlayer.isPlaying()) {
+            macroPlayer.stop();
+            updatePipelinePaused();
+            Log.d(TAG, "Macro playback stopped");
+            return;
+        }
+        // No reproducir una grabación que aún se está escribiendo
+        stopMacroRecording();
+        if (macroPlayer.start(getMacroFile())) {
+            updatePipelinePaused();
+            Log.d(TAG, "Macro playback started");
+        }
+    }
+
+    private void registerScreenStateReceiver() {
+        PowerManager powerManager = (PowerManager) getSystemService(POWER_SERVICE);
+        final boolean interactive = powerManager == null || powerManager.isInteractive();
+        dispatchHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                screenInteractive = interactive;
+            }
+        });
+
+        screenStateReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                if ("SWIPE_COMMAND".equals(intent.getAction())) {
-                    String direction = intent.getStringExtra("direction");
-                    Log.d(TAG, "Received swipe command: " + direction);
-                    
-                    if ("up".equals(direction)) {
-                        performSwipeUp();
-                    } else if ("down".equals(direction)) {
-                        performSwipeDown();
-                    }
-                }
+                screenInteractive = !Intent.ACTION_SCREEN_OFF.equals(intent.getAction());
+                updateAutoAdvance();
             }
         };
+        IntentFilter filter = new IntentFilter(Intent.ACTION_SCREEN_OFF);
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        registerReceiver(screenStateReceiver, filter, null, dispatchHandler);
+    }
 
-        IntentFilter filter = new IntentFilter("SWIPE_COMMAND");
-        registerReceiver(swipeCommandReceiver, filter);
+    private void setAutoAdvanceEnabled(boolean enabled) {
+        autoAdvanceEnabled = enabled;
+        ServiceStateRepository.get(this).setAutoAdvanceEnabled(enabled);
+        updateAutoAdvance();
     }
 
-    private void performSwipeUp() {
-        Log.d(TAG, "Performing swipe up");
-        
-        // Crear path para swipe hacia arriba
-        Path swipePath = new Path();
-        swipePath.moveTo(screenCenterX, screenCenterY + SWIPE_DISTANCE/2);
-        swipePath.lineTo(screenCenterX, screenCenterY - SWIPE_DISTANCE/2);
-        
-        performGesture(swipePath);
+    // Arranca o pausa el temporizador según las condiciones actuales
+    private void updateAutoAdvance() {
+        boolean shouldRun = autoAdvanceEnabled && screenInteractive && targetInForeground;
+        long now = SystemClock.uptimeMillis();
+        if (shouldRun && !autoAdvanceSchedule.isRunning()) {
+            autoAdvanceSchedule.start(now, settings.autoAdvanceInterval);
+            dispatchHandler.postAtTime(autoAdvanceTick, autoAdvanceSchedule.getNextDeadlineMs());
+        } else if (!shouldRun && autoAdvanceSchedule.isRunning()) {
+            autoAdvanceSchedule.stop(now);
+            dispatchHandler.removeCallbacks(autoAdvanceTick);
+        }
     }
 
-    private void performSwipeDown() {
-        Log.d(TAG, "Performing swipe down");
-        
-        // Crear path para swipe hacia abajo
-        Path swipePath = new Path();
-        swipePath.moveTo(screenCenterX, screenCenterY - SWIPE_DISTANCE/2);
-        swipePath.lineTo(screenCenterX, screenCenterY + SWIPE_DISTANCE/2);
-        
-        performGesture(swipePath);
+    private void onAutoAdvanceTick() {
+        if (!autoAdvanceSchedule.isRunning()) {
+            return;
+        }
+
+        // La salida de la app objetivo llega por markTargetBackground y pausa el temporizador
+        gesturePipeline.submit(SwipeCommand.SWIPE_UP, System.nanoTime());
+        long next = autoAdvanceSchedule.onWakeup(SystemClock.uptimeMillis());
+        dispatchHandler.postAtTime(autoAdvanceTick, next);
     }
 
-    private void performGesture(Path gesturePath) {
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-            GestureDescription.StrokeDescription strokeDescription = 
-                new GestureDescription.StrokeDescription(gesturePath, 0, SWIPE_DURATION);
-            
-            GestureDescription gestureDescription = new GestureDescription.Builder()
-                .addStroke(strokeDescription)
-                .build();
+    private CharSequence getActiveWindowPackage() {
+        AccessibilityNodeInfo root = getRootInActiveWindow();
+        if (root == null) {
+            return null;
+        }
+        CharSequence packageName = root.getPackageName();
+        root.recycle();
+        return packageName;
+    }
 
-            boolean result = dispatchGesture(gestureDescription, new GestureResultCallback() {
-                @Override
-                public void onCompleted(GestureDescription gestureDescription) {
-                    super.onCompleted(gestureDescription);
-                    Log.d(TAG, "Gesture completed successfully");
-                }
+    private final GesturePipeline.Sink gestureSink = new GesturePipeline.Sink() {
+        @Override
+        public boolean dispatch(int command, int strokes, long tapNanos) {
+            inFlightDispatchNanos = System.nanoTime();
+            if (SwipeCommand.isKeySwipe(command)) {
+                SwipeMetrics.get().onKeyGestureDispatched(tapNanos, inFlightDispatchNanos);
+            } else {
+                SwipeMetrics.get().onGestureDispatched(tapNanos, inFlightDispatchNanos);
+            }
+            EventTrace.record(TraceEvent.GESTURE_DISPATCHED, command, strokes);
+            EventTrace.beginSection(EventTrace.SECTION_DISPATCH);
+            try {
+                return performSwipe(SwipeCommand.toSwipe(command), strokes);
+            } finally {
+                EventTrace.endSection();
+            }
+        }
+    };
 
-                @Override
-                public void onCancelled(GestureDescription gestureDescription) {
-                    super.onCancelled(gestureDescription);
-                    Log.w(TAG, "Gesture was cancelled");
-                }
-            }, null);
+    // Callback único y sin estado para todos los backends del pipeline
+    private final ScrollBackend.Callback scrollCallback = new ScrollBackend.Callback() {
+        @Override
+        public void onScrollFinished(ScrollBackend backend, boolean success) {
+            EventTrace.record(TraceEvent.GESTURE_FINISHED, success ? 1 : 0,
+                    backend == gestureBackend ? TraceEvent.BACKEND_GESTURE : TraceEvent.BACKEND_NODE_ACTION);
 
-            if (!result) {
-                Log.e(TAG, "Failed to dispatch gesture");
+            long now = System.nanoTime();
+            backendStats(backend).record(success, now - inFlightDispatchNanos);
+            if (backend == gestureBackend && adaptiveActive()) {
+                onTunedGestureFinished(success);
             }
+            SwipeMetrics.get().onGestureFinished(success, gesturePipeline.getInFlightTapNanos(),
+                    inFlightDispatchNanos, now);
+            int strokes = gesturePipeline.getInFlightStrokes();
+            gesturePipeline.onGestureFinished(success);
+            onThroughputGestureFinished(success, strokes, now);
+            onGestureSlotFree();
+        }
+    };
+
+    private void onThroughputGestureFinished(boolean success, int strokes, long now) {
+        if (holdCommand != SwipeCommand.NONE && continuousScroller == null) {
+            // Mantener pulsado sin continueStroke: encadenar el siguiente swipe
+            if (success) {
+                holdItems += strokes;
+            }
+            if (gesturePipeline.isIdle()) {
+                gesturePipeline.submit(holdCommand, now);
+            }
+        } else if (tapSessionStartNanos != 0) {
+            if (success) {
+                tapSessionItems += strokes;
+            }
+            if (gesturePipeline.isIdle()) {
+                SwipeMetrics.get().tapThroughput.recordSession(tapSessionItems, now - tapSessionStartNanos);
+                tapSessionStartNanos = 0;
+            }
+        }
+    }
+
+    private void onTunedGestureFinished(boolean success) {
+        long nowMs = SystemClock.uptimeMillis();
+        if (adaptiveTuner.onFinished(success, nowMs)) {
+            applyTunedParameters();
+        }
+        if (adaptiveTuner.isAwaitingConfirmation()) {
+            dispatchHandler.removeCallbacks(scrollConfirmTimeout);
+            dispatchHandler.postAtTime(scrollConfirmTimeout, adaptiveTuner.getConfirmDeadlineMs());
         } else {
-            Log.e(TAG, "Gesture simulation requires Android N (API 24) or higher");
-            Toast.makeText(this, "Tu dispositivo no soporta simulación de gestos", 
-                          Toast.LENGTH_SHORT).show();
+            awaitingScrollConfirmation.set(false);
         }
     }
 
-    // Métodos para ajustar la sensibilidad y posición del swipe
-    public void setSwipePosition(float x, float y) {
-        screenCenterX = x;
-        screenCenterY = y;
-        Log.d(TAG, "Swipe position updated to: " + x + ", " + y);
+    private BackendStats backendStats(ScrollBackend backend) {
+        return backend == nodeActionBackend
+                ? SwipeMetrics.get().nodeActionBackend
+                : SwipeMetrics.get().gestureBackend;
+    }
+
+    private int getMaxStrokesPerGesture() {
+        return maxStrokesFor(gestureDuration());
     }
 
-    // Método para swipe personalizado (si se necesita en el futuro)
-    private void performCustomSwipe(float startX, float startY, float endX, float endY, long duration) {
+    private int maxStrokesFor(long duration) {
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-            Path customPath = new Path();
-            customPath.moveTo(startX, startY);
-            customPath.lineTo(endX, endY);
-
-            GestureDescription.StrokeDescription strokeDescription = 
-                new GestureDescription.StrokeDescription(customPath, 0, duration);
-            
-            GestureDescription gestureDescription = new GestureDescription.Builder()
-                .addStroke(strokeDescription)
-                .build();
+            // Cada trazo ocupa la duración del swipe + STROKE_GAP dentro del gesto
+            return SwipeGeometry.maxStrokesPerGesture(GestureDescription.getMaxStrokeCount(),
+                    GestureDescription.getMaxGestureDuration(), duration, STROKE_GAP);
+        }
+        return 1;
+    }
 
-            boolean result = dispatchGesture(gestureDescription, new GestureResultCallback() {
+    private boolean performSwipe(int command, int strokes) {
+        // Ruta rápida: acción de scroll sobre el contenedor, sin esperar a un trazo sintético
+        if (preferNodeActions && nodeActionBackend.canScroll(command)) {
+            if (nodeActionBackend.scroll(command, strokes)) {
+                return true;
+            }
+            SwipeMetrics.get().nodeActionBackend.record(false, System.nanoTime() - inFlightDispatchNanos);
+        }
+
+        if (gestureBackend == null) {
+            Log.e(TAG, "Gesture simulation requires Android N (API 24) or higher");
+            mainHandler.post(new Runnable() {
                 @Override
-                public void onCompleted(GestureDescription gestureDescription) {
-                    super.onCompleted(gestureDescription);
-                    Log.d(TAG, "Custom gesture completed");
+                public void run() {
+                    Toast.makeText(SwipeSimulatorService.this, "Tu dispositivo no soporta simulación de gestos", 
+                                  Toast.LENGTH_SHORT).show();
                 }
+            });
+            return false;
+        }
+
+        // Una ráfaga de toques usa el gesto precalculado con ese número de trazos
+        if (adaptiveActive()) {
+            adaptiveTuner.onDispatched();
+            awaitingScrollConfirmation.set(true);
+        }
+        long dispatchNanos = System.nanoTime();
+        boolean result = gestureBackend.scroll(command, strokes);
+        if (!result) {
+            EventTrace.record(TraceEvent.GESTURE_FAILED, command, strokes);
+        } else {
+            settleStrokeProfile = settings.strokeProfile;
+            settleDispatchNanos = dispatchNanos;
+            mainHandler.post(settleStart);
+        }
+        return result;
+    }
 
+    // adb shell dumpsys activity service com.swipehelper.floatingswipe/.SwipeSimulatorService
+    // Con el argumento "trace" además vuelca los eventos del camino caliente a events.swt.
+    // Solo en builds de depuración, porque cambian el estado del servicio:
+    // "capture-start" / "capture-stop" graban los eventos de accesibilidad en events.swc;
+    // "stroke x1 y1 x2 y2 [ms]" envía un trazo personalizado (y lo graba si hay una macro en curso)
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        SwipeMetrics.get().dump(writer);
+        writer.println("Event trace: recorded=" + EventTrace.getRecordedCount()
+                + " capacity=" + EventTrace.getCapacity());
+        if (args != null && args.length > 0 && "trace".equals(args[0])) {
+            try {
+                File file = EventTrace.export(getFilesDir());
+                writer.println("  exported " + file + " (" + file.length() + " bytes)");
+            } catch (IOException e) {
+                writer.println("  export failed: " + e);
+            }
+        }
+        boolean debugCommand = args != null && args.length > 0 && ("capture-start".equals(args[0])
+                || "capture-stop".equals(args[0]) || "stroke".equals(args[0]));
+        if (debugCommand && !BuildConfig.DEBUG) {
+            writer.println("\"" + args[0] + "\" is only available in debug builds");
+            debugCommand = false;
+        }
+        if (debugCommand && ("capture-start".equals(args[0]) || "capture-stop".equals(args[0]))) {
+            final boolean start = "capture-start".equals(args[0]);
+            mainHandler.post(new Runnable() {
                 @Override
-                public void onCancelled(GestureDescription gestureDescription) {
-                    super.onCancelled(gestureDescription);
-                    Log.w(TAG, "Custom gesture cancelled");
+                public void run() {
+                    if (start) {
+                        startEventCapture();
+                    } else {
+                        stopEventCapture();
+                    }
                 }
-            }, null);
-
-            if (!result) {
-                Log.e(TAG, "Failed to dispatch custom gesture");
+            });
+            writer.println("Event capture " + (start ? "starting" : "stopping") + ": "
+                    + new File(getFilesDir(), CAPTURE_FILE_NAME));
+        }
+        // stroke x1 y1 x2 y2 [ms]: trazo personalizado, se graba si hay una macro en curso
+        if (debugCommand && args.length >= 5 && "stroke".equals(args[0])) {
+            try {
+                final float startX = Float.parseFloat(args[1]);
+                final float startY = Float.parseFloat(args[2]);
+                final float endX = Float.parseFloat(args[3]);
+                final float endY = Float.parseFloat(args[4]);
+                final long duration = args.length > 5 ? Long.parseLong(args[5]) : settings.duration;
+                dispatchHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        performCustomSwipe(startX, startY, endX, endY, duration);
+                    }
+                });
+                writer.println("Custom stroke " + startX + "," + startY + " -> " + endX + "," + endY
+                        + " " + duration + "ms" + (macroWriter != null ? " (recording)" : ""));
+            } catch (NumberFormatException e) {
+                writer.println("Usage: stroke x1 y1 x2 y2 [durationMs]");
             }
         }
+        writer.println("Event router: routed=" + eventRouter.getRoutedCount()
+                + " ignored=" + eventRouter.getIgnoredCount());
+
+        // Contadores del pipeline: lectura sin sincronizar, solo para diagnóstico
+        GesturePipeline pipeline = gesturePipeline;
+        if (pipeline != null) {
+            writer.println("Gesture pipeline: queued=" + pipeline.getQueuedCount()
+                    + " coalesced=" + pipeline.getCoalescedCount()
+                    + " dropped=" + pipeline.getDroppedCount()
+                    + " dispatched=" + pipeline.getDispatchedCount()
+                    + " completed=" + pipeline.getCompletedCount()
+                    + " cancelled=" + pipeline.getCancelledCount());
+        }
+        writer.println("Command channel dropped=" + SwipeCommandChannel.get().getDroppedCount());
+        StringBuilder line = new StringBuilder("Auto-advance: enabled=").append(autoAdvanceEnabled)
+                .append(" running=").append(autoAdvanceSchedule.isRunning())
+                .append(" wakeups=").append(autoAdvanceSchedule.getWakeups())
+                .append(" skipped=").append(autoAdvanceSchedule.getSkippedSlots())
+                .append(" wakeups/h=").append(Math.round(autoAdvanceSchedule.getWakeupsPerHour(SystemClock.uptimeMillis())))
+                .append("\n  ");
+        autoAdvanceSchedule.getJitter().appendSummary(line);
+        writer.println(line);
+        writer.println("Reel container: searches=" + containerTracker.getSearchCount()
+                + " refreshes=" + containerTracker.getRefreshCount()
+                + " anchor=" + screenCenterX + "," + screenCenterY);
+        SettingsStore store = SettingsStore.get(this);
+        if (settings.adaptive) {
+            line.setLength(0);
+            adaptiveTuner.appendSummary(line, SystemClock.uptimeMillis());
+            writer.println(line);
+        }
+        line.setLength(0);
+        line.append("Stroke: ").append(StrokeProfile.name(settings.strokeProfile)).append("\n  ");
+        settleTimer.appendSummary(line);
+        writer.println(line);
+        writer.println("Target app: foreground=" + targetWindowActive + " profile=" + activeProfile);
+        writer.println("Key trigger: filtering=" + keyFilterEnabled + " consumed=" + keyEventsConsumed);
+        writer.println("Settings: " + settings + " loaded=" + store.isLoaded()
+                + " changes=" + store.getChangeCount() + " writes=" + store.getWriteCount());
+    }
+
+    private void logPipelineStats() {
+        Log.d(TAG, "Gesture pipeline: queued=" + gesturePipeline.getQueuedCount()
+                + " coalesced=" + gesturePipeline.getCoalescedCount()
+                + " dropped=" + gesturePipeline.getDroppedCount()
+                + " dispatched=" + gesturePipeline.getDispatchedCount()
+                + " completed=" + gesturePipeline.getCompletedCount()
+                + " cancelled=" + gesturePipeline.getCancelledCount());
+    }
+
+    // Fijar el punto del swipe en píxeles; se guarda como fracción de la pantalla en los ajustes
+    // y llega al hilo de gestos a través del listener
+    public void setSwipePosition(float x, float y) {
+        DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
+        SettingsStore.get(this).setAnchor(x / displayMetrics.widthPixels, y / displayMetrics.heightPixels);
+        EventTrace.record(TraceEvent.SWIPE_POSITION, Math.round(x), Math.round(y));
+    }
+
+    // Gestos fuera del pipeline: trazos personalizados y reproducción de macros
+    private final GestureResultCallback customGestureCallback = new GestureResultCallback() {
+        @Override
+        public void onCompleted(GestureDescription gestureDescription) {
+            EventTrace.record(TraceEvent.CUSTOM_STROKE, 1, 0);
+            externalGestureInFlight = false;
+            onGestureSlotFree();
+        }
+
+        @Override
+        public void onCancelled(GestureDescription gestureDescription) {
+            EventTrace.record(TraceEvent.CUSTOM_STROKE, 0, 0);
+            externalGestureInFlight = false;
+            onGestureSlotFree();
+        }
+    };
+
+    // Swipe personalizado (dumpsys ... stroke); se graba si hay una macro en curso.
+    // Espera a que termine el gesto en curso (pipeline, arrastre o macro) en vez de cancelarlo;
+    // uno nuevo antes de salir sustituye al pendiente. Llamar desde el hilo de gestos.
+    void performCustomSwipe(float startX, float startY, float endX, float endY, long duration) {
+        if (macroWriter != null) {
+            macroRecord.setStroke(System.nanoTime() - macroStartNanos, startX, startY, endX, endY, (int) duration);
+            appendMacroRecord();
+        }
+
+        customStartX = startX;
+        customStartY = startY;
+        customEndX = endX;
+        customEndY = endY;
+        customDuration = duration;
+        customStrokePending = true;
+        updatePipelinePaused();
+        onGestureSlotFree();
+    }
+
+    private GestureDescription createCustomStroke(float startX, float startY, float endX, float endY,
+                                                  long duration) {
+        // Las coordenadas vienen de fuera (dumpsys o una macro grabada en otra pantalla):
+        // StrokeDescription lanza IllegalArgumentException con negativas o duración 0
+        customPoints[0] = startX;
+        customPoints[1] = startY;
+        customPoints[2] = endX;
+        customPoints[3] = endY;
+        SwipeGeometry.clampToDisplay(customPoints, 2, displayCenterX * 2, displayCenterY * 2);
+        Path customPath = new Path();
+        customPath.moveTo(customPoints[0], customPoints[1]);
+        customPath.lineTo(customPoints[2], customPoints[3]);
+        return new GestureDescription.Builder()
+                .addStroke(new GestureDescription.StrokeDescription(customPath, 0, Math.max(1, duration)))
+                .build();
+    }
+
+    // El error de temporización se mide aquí, en el envío, no cuando se despierta el Handler;
+    // incluye lo que el registro esperó a que terminase el gesto anterior
+    private void dispatchPlaybackGesture(GestureDescription gesture, long scheduledNanos) {
+        SwipeMetrics.get().macroPlaybackError.recordNanos(Math.abs(System.nanoTime() - scheduledNanos));
+        dispatchExternalGesture(gesture);
+    }
+
+    private void dispatchExternalGesture(GestureDescription gesture) {
+        if (dispatchGesture(gesture, customGestureCallback, dispatchHandler)) {
+            externalGestureInFlight = true;
+        } else {
+            Log.e(TAG, "Failed to dispatch custom gesture");
+        }
     }
 }
@@ -0,0 +1,74 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Latencia toque -> consumidor y throughput del canal en proceso (sustituto del broadcast)
+@State(Scope.Group)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandChannelBenchmark {
+
+    private static final Runnable NO_WAKEUP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private SwipeCommandChannel channel;
+    private final LatencyConsumer latencyConsumer = new LatencyConsumer();
+
+    private static final class LatencyConsumer implements SwipeCommandChannel.Consumer {
+        long lastLatency;
+        int lastCommand;
+
+        @Override
+        public void onCommand(int command, long tapNanos) {
+            lastCommand = command;
+            lastLatency = System.nanoTime() - tapNanos;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        channel = new SwipeCommandChannel();
+        channel.attach(NO_WAKEUP);
+    }
+
+    // Un toque completo: offer desde el productor y drain en el consumidor
+    @Benchmark
+    @Group("roundTrip")
+    @BenchmarkMode(Mode.SampleTime)
+    public long tapToConsume() {
+        channel.offer(SwipeCommand.SWIPE_UP, System.nanoTime());
+        channel.drain(latencyConsumer);
+        return latencyConsumer.lastLatency;
+    }
+
+    // Productor y consumidor en hilos distintos, como el hilo principal y el hilo de gestos
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.Throughput)
+    public boolean produce() {
+        return channel.offer(SwipeCommand.SWIPE_DOWN, System.nanoTime());
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.Throughput)
+    public void consume(Blackhole blackhole) {
+        blackhole.consume(channel.drain(latencyConsumer));
+    }
+}
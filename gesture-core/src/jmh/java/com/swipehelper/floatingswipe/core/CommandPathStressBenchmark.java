@@ -0,0 +1,119 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Prueba de carga determinista del camino de comandos completo sin teléfono:
+// canal -> GesturePipeline -> SimulatedGestureDispatcher, con el tiempo en un reloj virtual.
+// Cada invocación simula COMMANDS toques con la misma semilla y comprueba que no se pierde
+// ningún trazo (encolados = completados + cancelados + descartados); si no, falla la ejecución.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CommandPathStressBenchmark {
+
+    private static final int COMMANDS = 10_000;
+    private static final long MS = 1_000_000L;
+
+    private static final Runnable NO_WAKEUP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    // steady: 1000 toques/s de tiempo virtual; bursts: ráfagas aleatorias con pausas;
+    // cancelStorm: ráfagas y además el 30% de los gestos interrumpidos
+    @Param({"steady", "bursts", "cancelStorm"})
+    public String scenario;
+
+    private Random random;
+    private SwipeCommandChannel channel;
+    private GesturePipeline pipeline;
+    private SimulatedGestureDispatcher dispatcher;
+    private SwipeCommandChannel.Consumer consumer;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        random = new Random(42);
+        channel = new SwipeCommandChannel();
+        channel.attach(NO_WAKEUP);
+
+        // Latencia de envío 4-12 ms y 100 ms por trazo, como los swipes reales
+        dispatcher = new SimulatedGestureDispatcher(7, 4 * MS, 8 * MS, 100 * MS);
+        if ("cancelStorm".equals(scenario)) {
+            dispatcher.setCancelProbability(0.3);
+        }
+        pipeline = new GesturePipeline(new GesturePipeline.Sink() {
+            @Override
+            public boolean dispatch(int command, int strokes, long tapNanos) {
+                return dispatcher.dispatch(command, strokes);
+            }
+        }, 8, 10);
+        dispatcher.setListener(new GestureDispatcher.Listener() {
+            @Override
+            public void onGestureFinished(boolean completed) {
+                pipeline.onGestureFinished(completed);
+            }
+        });
+        consumer = new SwipeCommandChannel.Consumer() {
+            @Override
+            public void onCommand(int command, long tapNanos) {
+                pipeline.submit(command, tapNanos);
+            }
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public long commandPath() {
+        boolean steady = "steady".equals(scenario);
+        boolean storm = "cancelStorm".equals(scenario);
+        long t = 0;
+        int burstLeft = 0;
+
+        for (int i = 0; i < COMMANDS; i++) {
+            if (steady) {
+                t += MS;
+            } else if (burstLeft > 0) {
+                t += 20 * MS + random.nextInt(40) * MS;
+                burstLeft--;
+            } else {
+                t += random.nextInt(500) * MS;
+                burstLeft = random.nextInt(20);
+            }
+            dispatcher.advanceTo(t);
+
+            int command = random.nextInt(4) == 0 ? SwipeCommand.SWIPE_DOWN : SwipeCommand.SWIPE_UP;
+            channel.offer(command, t);
+            channel.drain(consumer);
+
+            // Toques reales del usuario que interrumpen el gesto en curso
+            if (storm && random.nextInt(10) == 0) {
+                dispatcher.cancelInFlight();
+            }
+        }
+        dispatcher.runUntilIdle();
+
+        long accounted = pipeline.getCompletedCount() + pipeline.getCancelledCount() + pipeline.getDroppedCount();
+        if (!pipeline.isIdle() || pipeline.getQueuedCount() != COMMANDS || accounted != COMMANDS
+                || pipeline.getDispatchedCount() != dispatcher.getDispatchedCount()) {
+            throw new IllegalStateException("Lost strokes: queued=" + pipeline.getQueuedCount()
+                    + " completed=" + pipeline.getCompletedCount()
+                    + " cancelled=" + pipeline.getCancelledCount()
+                    + " dropped=" + pipeline.getDroppedCount()
+                    + " dispatched=" + pipeline.getDispatchedCount() + "/" + dispatcher.getDispatchedCount());
+        }
+        return dispatcher.nowNanos();
+    }
+}
@@ -0,0 +1,39 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Coste por comando de la planificación: parseo, geometría del swipe y cálculos del overlay
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommandPlanningBenchmark {
+
+    private final float[] points = new float[4];
+    private String direction = "up";
+    private int x = 537;
+
+    @Benchmark
+    public int parseCommand() {
+        return SwipeCommand.fromDirection(direction);
+    }
+
+    @Benchmark
+    public float[] planSwipe() {
+        int command = SwipeCommand.fromDirection(direction);
+        SwipeGeometry.computeSwipe(command, 540f, 1200f, 200f, points);
+        return points;
+    }
+
+    @Benchmark
+    public int dragClampAndSnap() {
+        int clamped = OverlayBounds.clamp(x, 1080, 160);
+        return OverlayBounds.snapX(clamped, 1080, 160);
+    }
+}
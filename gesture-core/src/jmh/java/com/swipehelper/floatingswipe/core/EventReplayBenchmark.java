@@ -0,0 +1,237 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Reproduce una sesión de eventos de accesibilidad contra EventRouter tan rápido como se pueda.
+// throughput = eventos/s, perEvent = coste por evento y el perfil gc (build.gradle) la memoria
+// reservada por evento. Los efectos Android del servicio (caché del contenedor, Handler) no
+// entran: solo el reparto que hace onAccessibilityEvent.
+//
+// capture: ruta de una captura del teléfono
+//   adb shell dumpsys activity service com.swipehelper.floatingswipe/.SwipeSimulatorService capture-start
+//   ... usar la app ...
+//   adb shell dumpsys activity service com.swipehelper.floatingswipe/.SwipeSimulatorService capture-stop
+//   adb exec-out run-as com.swipehelper.floatingswipe cat files/events.swc > events.swc
+// Vacío: sesión sintética con semilla fija (reels de Instagram con ruido de otras apps).
+//
+// subscription: narrow son solo los tres tipos de accessibility_service_config.xml; all añade
+// lo que además entregaba typeAllMask (clics, foco, selección, texto, notificaciones...), que
+// route() descarta. Es un modelo: ~0,7 eventos extra por cada suscrito, con su propia semilla
+// para que la secuencia de eventos suscritos sea la misma en ambos casos. session = coste de
+// reproducir la sesión entera una vez.
+@State(Scope.Thread)
+public class EventReplayBenchmark {
+
+    private static final int SYNTHETIC_EVENTS = 50_000;
+
+    // Tipos que no pedimos (valores de AccessibilityEvent)
+    private static final int[] UNSUBSCRIBED_TYPES = {
+            0x00000001, // TYPE_VIEW_CLICKED
+            0x00000004, // TYPE_VIEW_SELECTED
+            0x00000008, // TYPE_VIEW_FOCUSED
+            0x00000010, // TYPE_VIEW_TEXT_CHANGED
+            0x00000040, // TYPE_NOTIFICATION_STATE_CHANGED
+            0x00002000, // TYPE_VIEW_TEXT_SELECTION_CHANGED
+            0x00008000, // TYPE_VIEW_ACCESSIBILITY_FOCUSED
+            0x00400000, // TYPE_WINDOWS_CHANGED
+    };
+    private static final int EXTRA_EVENTS_PERCENT = 70;
+
+    @Param({""})
+    public String capture;
+
+    @Param({"narrow", "all"})
+    public String subscription;
+
+    private int[] types;
+    private long[] times;
+    private String[] packages;
+    private int cursor;
+
+    private EventRouter router;
+    private CountingTarget target;
+
+    private static final class CountingTarget implements EventRouter.Target {
+        long windows;
+        long targetWindows;
+        long scrolls;
+        long contentChanges;
+        int lastProfile;
+
+        @Override
+        public void onWindowStateChanged() {
+            windows++;
+        }
+
+        @Override
+        public void onTargetWindow(int profile, long eventNanos) {
+            targetWindows++;
+            lastProfile = profile;
+        }
+
+        @Override
+        public void onOtherWindow(long eventNanos) {
+        }
+
+        @Override
+        public void onTargetScrolled(long eventNanos) {
+            scrolls++;
+        }
+
+        @Override
+        public void onTargetContentChanged(long eventNanos) {
+            contentChanges++;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (capture.isEmpty()) {
+            synthesize();
+        } else {
+            load(new File(capture));
+        }
+        if ("all".equals(subscription)) {
+            addUnsubscribedEvents();
+        }
+        target = new CountingTarget();
+        router = new EventRouter(GestureProfileTable.createDefault(), target);
+        cursor = 0;
+    }
+
+    private void load(File file) throws IOException {
+        ArrayList<CapturedEvent> events = new ArrayList<>();
+        EventCaptureReader reader = new EventCaptureReader(file);
+        try {
+            CapturedEvent event = new CapturedEvent();
+            while (reader.next(event)) {
+                events.add(event);
+                event = new CapturedEvent();
+            }
+        } finally {
+            reader.close();
+        }
+        if (events.isEmpty()) {
+            throw new IOException("Empty event capture: " + file);
+        }
+        types = new int[events.size()];
+        times = new long[events.size()];
+        packages = new String[events.size()];
+        for (int i = 0; i < types.length; i++) {
+            CapturedEvent event = events.get(i);
+            types[i] = event.type;
+            times[i] = event.eventNanos;
+            packages[i] = copy(event.packageName);
+        }
+    }
+
+    private void synthesize() {
+        Random random = new Random(42);
+        types = new int[SYNTHETIC_EVENTS];
+        times = new long[SYNTHETIC_EVENTS];
+        packages = new String[SYNTHETIC_EVENTS];
+        long t = 0;
+        for (int i = 0; i < SYNTHETIC_EVENTS; i++) {
+            t += random.nextInt(20_000_000);
+            int roll = random.nextInt(100);
+            String packageName;
+            int type;
+            if (roll < 2) {
+                type = EventRouter.TYPE_WINDOW_STATE_CHANGED;
+                packageName = random.nextBoolean() ? "com.instagram.android" : "com.android.systemui";
+            } else if (roll < 7) {
+                type = EventRouter.TYPE_WINDOW_CONTENT_CHANGED;
+                packageName = "com.android.systemui";
+            } else if (roll < 15) {
+                type = EventRouter.TYPE_VIEW_SCROLLED;
+                packageName = "com.instagram.android";
+            } else {
+                type = EventRouter.TYPE_WINDOW_CONTENT_CHANGED;
+                packageName = "com.instagram.android";
+            }
+            types[i] = type;
+            times[i] = t;
+            packages[i] = copy(packageName);
+        }
+    }
+
+    // Intercala delante de cada evento suscrito los que llegaban además con typeAllMask
+    private void addUnsubscribedEvents() {
+        Random random = new Random(7);
+        int[] allTypes = new int[types.length * 2];
+        long[] allTimes = new long[allTypes.length];
+        String[] allPackages = new String[allTypes.length];
+        int count = 0;
+        for (int i = 0; i < types.length; i++) {
+            if (random.nextInt(100) < EXTRA_EVENTS_PERCENT) {
+                allTypes[count] = UNSUBSCRIBED_TYPES[random.nextInt(UNSUBSCRIBED_TYPES.length)];
+                allTimes[count] = times[i];
+                allPackages[count] = copy(packages[i]);
+                count++;
+            }
+            allTypes[count] = types[i];
+            allTimes[count] = times[i];
+            allPackages[count] = packages[i];
+            count++;
+        }
+        types = Arrays.copyOf(allTypes, count);
+        times = Arrays.copyOf(allTimes, count);
+        packages = Arrays.copyOf(allPackages, count);
+    }
+
+    // En el teléfono cada evento trae su propia instancia del nombre (llega en un Parcel)
+    private static String copy(String value) {
+        return value != null ? new String(value) : null;
+    }
+
+    private void replayOne() {
+        int i = cursor;
+        router.route(types[i], packages[i], times[i]);
+        cursor = i + 1 == types.length ? 0 : i + 1;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long throughput() {
+        replayOne();
+        return router.getRoutedCount();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long perEvent() {
+        replayOne();
+        return router.getRoutedCount();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long session() {
+        EventRouter router = this.router;
+        int[] types = this.types;
+        long[] times = this.times;
+        String[] packages = this.packages;
+        for (int i = 0; i < types.length; i++) {
+            router.route(types[i], packages[i], times[i]);
+        }
+        return router.getRoutedCount();
+    }
+}
@@ -0,0 +1,56 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Throughput de la cola de gestos: toques sueltos y ráfagas que se fusionan
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GesturePipelineBenchmark {
+
+    private static final int BURST = 10;
+
+    private GesturePipeline pipeline;
+    private long dispatchedStrokes;
+
+    @Setup
+    public void setUp() {
+        pipeline = new GesturePipeline(new GesturePipeline.Sink() {
+            @Override
+            public boolean dispatch(int command, int strokes, long tapNanos) {
+                dispatchedStrokes += strokes;
+                return true;
+            }
+        }, 8, BURST);
+    }
+
+    // Cada toque se envía y termina antes del siguiente
+    @Benchmark
+    public long singleTap() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 0L);
+        pipeline.onGestureFinished(true);
+        return dispatchedStrokes;
+    }
+
+    // Ráfaga de toques mientras hay un gesto en curso
+    @Benchmark
+    @OperationsPerInvocation(BURST + 1)
+    public long coalescedBurst() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 0L);
+        for (int i = 0; i < BURST; i++) {
+            pipeline.submit(SwipeCommand.SWIPE_UP, i);
+        }
+        pipeline.onGestureFinished(true);
+        pipeline.onGestureFinished(true);
+        return dispatchedStrokes;
+    }
+}
@@ -0,0 +1,43 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Coste de registrar un evento en TraceRing frente a construir la línea de Log.d que sustituye
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TraceRingBenchmark {
+
+    private final TraceRing ring = new TraceRing(4096);
+    private int command = SwipeCommand.SWIPE_UP;
+
+    @Benchmark
+    @Group("single")
+    public void record() {
+        ring.record(TraceEvent.COMMAND_RECEIVED, System.nanoTime(), command, 250);
+    }
+
+    // Lo que costaba antes cada toque aunque el log estuviera filtrado
+    @Benchmark
+    @Group("stringLog")
+    public String concatenate() {
+        return "Received swipe command: " + SwipeCommand.toDirection(command) + " (" + 250 + " us desde el toque)";
+    }
+
+    // Hilo de gestos y hilo principal escribiendo a la vez
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public void recordContended() {
+        ring.record(TraceEvent.GESTURE_DISPATCHED, System.nanoTime(), command, 1);
+    }
+}
@@ -0,0 +1,269 @@
+package com.swipehelper.floatingswipe.core;
+
+// Ajuste automático de distancia y duración del swipe según el resultado de cada gesto.
+// Un intento cuenta como éxito si el gesto se completó y la app objetivo confirmó el scroll
+// (TYPE_VIEW_SCROLLED) antes de CONFIRM_WINDOW_MS; cancelado o sin confirmar es un fallo.
+// Cada WINDOW intentos se evalúa la tasa de éxito:
+// - si es fiable se prueba un trazo más corto: primero menos duración y, con la duración en su
+//   suelo, menos distancia;
+// - si falla justo después de acortar se vuelve al último valor fiable y ese queda como suelo de
+//   lo que se acortó (al fijar el de distancia, convergencia); si falla sin haber acortado se
+//   alarga la distancia y, al tope, la duración.
+// No es thread-safe: se usa desde el hilo de gestos. Las lecturas para dump() son aproximadas.
+public final class AdaptiveTuner {
+
+    public static final long CONFIRM_WINDOW_MS = 600;
+    static final int WINDOW = 8;
+    static final int RELIABLE_SUCCESSES = 7; // 7 de 8 (~90%)
+    static final float DISTANCE_STEP = 20f;
+    static final long DURATION_STEP = 10; // ms
+    private static final int HISTORY_SIZE = 16;
+    // Entrada del historial que no viene de evaluar una ventana (reset)
+    private static final int NO_WINDOW_RESULT = -1;
+
+    // Qué acortó la última ventana fiable
+    private static final int STEP_NONE = 0;
+    private static final int STEP_DURATION = 1;
+    private static final int STEP_DISTANCE = 2;
+
+    private static final int IDLE = 0;
+    private static final int IN_FLIGHT = 1;
+    private static final int AWAITING_CONFIRM = 2;
+
+    private float distance;
+    private long duration;
+    private float lastGoodDistance;
+    private long lastGoodDuration;
+    private long durationFloor;
+    private float distanceFloor;
+    private int lastStep;
+    private boolean converged;
+
+    // Intento en curso
+    private int trialState = IDLE;
+    private boolean trialConfirmed;
+    private long confirmDeadlineMs;
+
+    // Ventana de evaluación
+    private int windowTrials;
+    private int windowSuccesses;
+
+    private long trials;
+    private long successes;
+    private long adjustments;
+
+    // Historial circular de ajustes
+    private final long[] historyTimeMs = new long[HISTORY_SIZE];
+    private final float[] historyDistance = new float[HISTORY_SIZE];
+    private final long[] historyDuration = new long[HISTORY_SIZE];
+    private final int[] historySuccesses = new int[HISTORY_SIZE];
+    private final String[] historyReason = new String[HISTORY_SIZE];
+    private int historyCount;
+
+    public AdaptiveTuner(float distance, long duration) {
+        reset(distance, duration, 0);
+    }
+
+    // Nuevo punto de partida (p. ej. el usuario cambió los ajustes); se olvida lo aprendido
+    public void reset(float distance, long duration, long nowMs) {
+        this.distance = clampDistance(distance);
+        this.duration = clampDuration(duration);
+        this.lastGoodDistance = this.distance;
+        this.lastGoodDuration = this.duration;
+        this.durationFloor = SwipeSettings.MIN_DURATION;
+        this.distanceFloor = SwipeSettings.MIN_DISTANCE;
+        this.lastStep = STEP_NONE;
+        this.converged = false;
+        this.trialState = IDLE;
+        this.windowTrials = 0;
+        this.windowSuccesses = 0;
+        historyRecord(nowMs, "reset", NO_WINDOW_RESULT);
+    }
+
+    public float getDistance() {
+        return distance;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    // true mientras un scroll de la app objetivo puede confirmar el intento en curso
+    public boolean isAwaitingConfirmation() {
+        return trialState != IDLE;
+    }
+
+    public long getConfirmDeadlineMs() {
+        return confirmDeadlineMs;
+    }
+
+    public void onDispatched() {
+        trialState = IN_FLIGHT;
+        trialConfirmed = false;
+    }
+
+    // La confirmación puede llegar antes del callback de fin del gesto
+    public boolean onScrollConfirmed(long nowMs) {
+        if (trialState == IN_FLIGHT) {
+            trialConfirmed = true;
+            return false;
+        }
+        if (trialState == AWAITING_CONFIRM) {
+            return finishTrial(true, nowMs);
+        }
+        return false;
+    }
+
+    // Devuelve true si cambiaron distancia o duración
+    public boolean onFinished(boolean completed, long nowMs) {
+        if (trialState != IN_FLIGHT) {
+            return false;
+        }
+        if (!completed || trialConfirmed) {
+            return finishTrial(completed, nowMs);
+        }
+        trialState = AWAITING_CONFIRM;
+        confirmDeadlineMs = nowMs + CONFIRM_WINDOW_MS;
+        return false;
+    }
+
+    // Llamar al vencer getConfirmDeadlineMs(); sin confirmación el intento es un fallo
+    public boolean onConfirmTimeout(long nowMs) {
+        if (trialState != AWAITING_CONFIRM || nowMs < confirmDeadlineMs) {
+            return false;
+        }
+        return finishTrial(false, nowMs);
+    }
+
+    private boolean finishTrial(boolean success, long nowMs) {
+        trialState = IDLE;
+        trials++;
+        windowTrials++;
+        if (success) {
+            successes++;
+            windowSuccesses++;
+        }
+        if (windowTrials < WINDOW) {
+            return false;
+        }
+        return evaluateWindow(nowMs);
+    }
+
+    private boolean evaluateWindow(long nowMs) {
+        boolean reliable = windowSuccesses >= RELIABLE_SUCCESSES;
+        int windowResult = windowSuccesses;
+        windowTrials = 0;
+        windowSuccesses = 0;
+        float previousDistance = distance;
+        long previousDuration = duration;
+        boolean wasConverged = converged;
+        String reason;
+
+        if (reliable) {
+            lastGoodDistance = distance;
+            lastGoodDuration = duration;
+            if (duration - DURATION_STEP >= durationFloor) {
+                duration -= DURATION_STEP;
+                lastStep = STEP_DURATION;
+                reason = "shorten-duration";
+            } else if (distance - DISTANCE_STEP >= distanceFloor) {
+                distance -= DISTANCE_STEP;
+                lastStep = STEP_DISTANCE;
+                reason = "shorten-distance";
+            } else {
+                converged = true;
+                lastStep = STEP_NONE;
+                reason = "stable";
+            }
+        } else if (lastStep != STEP_NONE) {
+            // El paso anterior fue demasiado corto: volver y no bajar de ahí en lo que se acortó
+            distance = lastGoodDistance;
+            duration = lastGoodDuration;
+            if (lastStep == STEP_DURATION) {
+                durationFloor = lastGoodDuration;
+                // Aún queda probar menos distancia
+                converged = distance - DISTANCE_STEP < distanceFloor;
+            } else {
+                distanceFloor = lastGoodDistance;
+                converged = true;
+            }
+            lastStep = STEP_NONE;
+            reason = "revert";
+        } else {
+            // Falla incluso sin acortar: trazo más largo y, al tope de distancia, más lento
+            converged = false;
+            durationFloor = SwipeSettings.MIN_DURATION;
+            distanceFloor = SwipeSettings.MIN_DISTANCE;
+            if (distance < SwipeSettings.MAX_DISTANCE) {
+                distance = clampDistance(distance + DISTANCE_STEP);
+            } else {
+                duration = clampDuration(duration + DURATION_STEP);
+            }
+            reason = "lengthen";
+        }
+
+        boolean changed = distance != previousDistance || duration != previousDuration;
+        // Las ventanas estables repetidas no se guardan en el historial
+        if (changed || converged != wasConverged) {
+            historyRecord(nowMs, reason, windowResult);
+        }
+        if (changed) {
+            adjustments++;
+        }
+        return changed;
+    }
+
+    private void historyRecord(long nowMs, String reason, int windowResult) {
+        int index = historyCount % HISTORY_SIZE;
+        historyTimeMs[index] = nowMs;
+        historyDistance[index] = distance;
+        historyDuration[index] = duration;
+        historySuccesses[index] = windowResult;
+        historyReason[index] = reason;
+        historyCount++;
+    }
+
+    public long getTrials() {
+        return trials;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getAdjustments() {
+        return adjustments;
+    }
+
+    // "Adaptive tuner: 180.0px 70ms converged=true ..." y una línea por ajuste reciente
+    public void appendSummary(StringBuilder out, long nowMs) {
+        out.append("Adaptive tuner: ").append(distance).append("px ").append(duration).append("ms")
+                .append(" converged=").append(converged)
+                .append(" floor=").append(distanceFloor).append("px/").append(durationFloor).append("ms")
+                .append(" trials=").append(trials)
+                .append(" successes=").append(successes)
+                .append(" adjustments=").append(adjustments);
+        int count = Math.min(historyCount, HISTORY_SIZE);
+        for (int i = historyCount - count; i < historyCount; i++) {
+            int index = i % HISTORY_SIZE;
+            out.append("\n  ").append((nowMs - historyTimeMs[index]) / 1000).append("s ago ")
+                    .append(historyReason[index]).append(' ')
+                    .append(historyDistance[index]).append("px/").append(historyDuration[index]).append("ms");
+            if (historySuccesses[index] != NO_WINDOW_RESULT) {
+                out.append(' ').append(historySuccesses[index]).append('/').append(WINDOW);
+            }
+        }
+    }
+
+    private static float clampDistance(float value) {
+        return Math.max(SwipeSettings.MIN_DISTANCE, Math.min(value, SwipeSettings.MAX_DISTANCE));
+    }
+
+    private static long clampDuration(long value) {
+        return Math.max(SwipeSettings.MIN_DURATION, Math.min(value, SwipeSettings.MAX_DURATION));
+    }
+}
@@ -0,0 +1,82 @@
+package com.swipehelper.floatingswipe.core;
+
+// Planificación sin deriva del avance automático sobre un reloj monotónico (ms).
+// Los plazos se calculan siempre desde el ancla (ancla + k * periodo), así los retrasos de
+// un despertar no se acumulan; si se pierde algún plazo se salta al siguiente.
+// No es thread-safe: se usa desde el hilo de gestos. Las lecturas para dump() son aproximadas.
+public final class AutoAdvanceSchedule {
+
+    private final LatencyHistogram jitter = new LatencyHistogram("auto-advance jitter");
+
+    private boolean running;
+    private long periodMs;
+    private long anchorMs;
+    private long slot;
+    private long nextDeadlineMs;
+
+    private long wakeups;
+    private long skippedSlots;
+    private long activeSinceMs;
+    private long activeTotalMs;
+
+    public void start(long nowMs, long periodMs) {
+        if (periodMs <= 0) {
+            throw new IllegalArgumentException("periodMs must be positive");
+        }
+        this.periodMs = periodMs;
+        this.anchorMs = nowMs;
+        this.slot = 1;
+        this.nextDeadlineMs = nowMs + periodMs;
+        this.activeSinceMs = nowMs;
+        this.running = true;
+    }
+
+    public void stop(long nowMs) {
+        if (running) {
+            activeTotalMs += nowMs - activeSinceMs;
+            running = false;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getNextDeadlineMs() {
+        return nextDeadlineMs;
+    }
+
+    // Llamar al despertar; registra el jitter y devuelve el siguiente plazo
+    public long onWakeup(long nowMs) {
+        wakeups++;
+        jitter.recordMicros((nowMs - nextDeadlineMs) * 1000);
+
+        long nextSlot = (nowMs - anchorMs) / periodMs + 1;
+        if (nextSlot > slot + 1) {
+            skippedSlots += nextSlot - slot - 1;
+        }
+        slot = nextSlot;
+        nextDeadlineMs = anchorMs + slot * periodMs;
+        return nextDeadlineMs;
+    }
+
+    public LatencyHistogram getJitter() {
+        return jitter;
+    }
+
+    public long getWakeups() {
+        return wakeups;
+    }
+
+    public long getSkippedSlots() {
+        return skippedSlots;
+    }
+
+    public double getWakeupsPerHour(long nowMs) {
+        long activeMs = activeTotalMs + (running ? nowMs - activeSinceMs : 0);
+        if (activeMs <= 0) {
+            return 0;
+        }
+        return wakeups * 3_600_000.0 / activeMs;
+    }
+}
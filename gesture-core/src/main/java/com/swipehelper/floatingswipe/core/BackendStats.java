@@ -0,0 +1,58 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Latencia y tasa de éxito de un backend de desplazamiento (gesto sintético, acción de nodo...)
+public final class BackendStats {
+
+    private final String name;
+    private final LatencyHistogram latency;
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public BackendStats(String name) {
+        this.name = name;
+        this.latency = new LatencyHistogram(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(boolean success, long latencyNanos) {
+        latency.recordNanos(latencyNanos);
+        if (success) {
+            successes.incrementAndGet();
+        } else {
+            failures.incrementAndGet();
+        }
+    }
+
+    public long getSuccesses() {
+        return successes.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public void appendSummary(StringBuilder out) {
+        latency.appendSummary(out);
+        long ok = successes.get();
+        long total = ok + failures.get();
+        out.append(" ok=").append(ok).append('/').append(total);
+        if (total > 0) {
+            out.append(" (").append(ok * 100 / total).append("%)");
+        }
+    }
+
+    public void reset() {
+        latency.reset();
+        successes.set(0);
+        failures.set(0);
+    }
+}
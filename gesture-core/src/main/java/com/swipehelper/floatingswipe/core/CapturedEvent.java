@@ -0,0 +1,39 @@
+package com.swipehelper.floatingswipe.core;
+
+// Un evento de accesibilidad capturado. Es mutable para reutilizarlo al leer sin reservar memoria.
+public final class CapturedEvent {
+
+    // AccessibilityEvent.getEventType()
+    public int type;
+    // getEventTime() del evento y llegada a onAccessibilityEvent, ambos en el reloj monotónico
+    public long eventNanos;
+    public long receivedNanos;
+    // null si el evento no los trae
+    public String packageName;
+    public String className;
+    // Límites en pantalla del nodo origen; todo 0 si no hay nodo
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public void set(int type, long eventNanos, long receivedNanos, CharSequence packageName,
+                    CharSequence className) {
+        this.type = type;
+        this.eventNanos = eventNanos;
+        this.receivedNanos = receivedNanos;
+        this.packageName = packageName != null ? packageName.toString() : null;
+        this.className = className != null ? className.toString() : null;
+        this.left = 0;
+        this.top = 0;
+        this.right = 0;
+        this.bottom = 0;
+    }
+
+    public void setBounds(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+}
@@ -0,0 +1,61 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Formato binario de las capturas de eventos de accesibilidad, little-endian:
+//
+//   cabecera: int magic 'SWEV' | short versión | short reservado | long tiempo base (nanos)
+//   cadena:   byte TAG_STRING | short id | short longitud | bytes UTF-8
+//   evento:   byte TAG_EVENT | int tipo | int evento µs | int llegada µs | short paquete
+//             | short clase | short left, top, right, bottom
+//
+// Los nombres de paquete y clase se repiten en casi todos los eventos: cada uno se escribe una
+// vez como cadena y los eventos llevan su id (NO_STRING si falta). Los tiempos son relativos al
+// tiempo base; en un int caben ~35 minutos de captura.
+public final class EventCaptureFormat {
+
+    public static final int MAGIC = 0x56455753; // "SWEV"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final byte TAG_STRING = 1;
+    public static final byte TAG_EVENT = 2;
+    public static final int EVENT_SIZE = 1 + 4 + 4 + 4 + 2 + 2 + 8;
+    public static final int STRING_HEADER_SIZE = 1 + 2 + 2;
+    public static final short NO_STRING = -1;
+    // Tope de cadenas distintas (ids de short)
+    public static final int MAX_STRINGS = Short.MAX_VALUE;
+    public static final long MAX_OFFSET_NANOS = Integer.MAX_VALUE * 1000L;
+
+    private EventCaptureFormat() {
+    }
+
+    public static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(Math.max(HEADER_SIZE, bytes)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static void writeHeader(ByteBuffer buffer, long baseNanos) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+        buffer.putLong(baseNanos);
+    }
+
+    // Devuelve el tiempo base
+    public static long readHeader(ByteBuffer buffer) throws IOException {
+        int magic = buffer.getInt();
+        short version = buffer.getShort();
+        buffer.getShort();
+        long baseNanos = buffer.getLong();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Not an event capture file (magic=" + Integer.toHexString(magic)
+                    + " version=" + version + ")");
+        }
+        return baseNanos;
+    }
+
+    static short clampCoordinate(int value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(value, Short.MAX_VALUE));
+    }
+}
@@ -0,0 +1,126 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+
+// Lee una captura de eventos en streaming: solo mantiene en memoria un bloque y la tabla de
+// cadenas. Las cadenas se devuelven siempre con la misma instancia para el mismo id.
+public final class EventCaptureReader implements Closeable {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = EventCaptureFormat.allocate(BUFFER_BYTES);
+    private final ArrayList<String> strings = new ArrayList<>();
+    private final long baseNanos;
+
+    public EventCaptureReader(File file) throws IOException {
+        channel = new FileInputStream(file).getChannel();
+        buffer.limit(0);
+        if (!fill(EventCaptureFormat.HEADER_SIZE)) {
+            channel.close();
+            throw new IOException("Truncated event capture file");
+        }
+        try {
+            baseNanos = EventCaptureFormat.readHeader(buffer);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getBaseNanos() {
+        return baseNanos;
+    }
+
+    // Devuelve false al llegar al final (un registro incompleto al final se ignora)
+    public boolean next(CapturedEvent event) throws IOException {
+        while (fill(1)) {
+            byte tag = buffer.get(buffer.position());
+            if (tag == EventCaptureFormat.TAG_STRING) {
+                if (!readString()) {
+                    return false;
+                }
+            } else if (tag == EventCaptureFormat.TAG_EVENT) {
+                return readEvent(event);
+            } else {
+                throw new IOException("Corrupt event capture (tag=" + tag + ")");
+            }
+        }
+        return false;
+    }
+
+    private boolean readString() throws IOException {
+        if (!fill(EventCaptureFormat.STRING_HEADER_SIZE)) {
+            return false;
+        }
+        int start = buffer.position();
+        int length = buffer.getShort(start + 3);
+        if (!fill(EventCaptureFormat.STRING_HEADER_SIZE + length)) {
+            return false;
+        }
+        buffer.get();
+        int id = buffer.getShort();
+        buffer.getShort();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        if (id != strings.size()) {
+            throw new IOException("Corrupt event capture (string " + id + " after " + strings.size() + ")");
+        }
+        strings.add(new String(bytes, UTF_8));
+        return true;
+    }
+
+    private boolean readEvent(CapturedEvent event) throws IOException {
+        if (!fill(EventCaptureFormat.EVENT_SIZE)) {
+            return false;
+        }
+        buffer.get();
+        event.type = buffer.getInt();
+        event.eventNanos = baseNanos + buffer.getInt() * 1000L;
+        event.receivedNanos = baseNanos + buffer.getInt() * 1000L;
+        event.packageName = string(buffer.getShort());
+        event.className = string(buffer.getShort());
+        event.left = buffer.getShort();
+        event.top = buffer.getShort();
+        event.right = buffer.getShort();
+        event.bottom = buffer.getShort();
+        return true;
+    }
+
+    private String string(short id) throws IOException {
+        if (id == EventCaptureFormat.NO_STRING) {
+            return null;
+        }
+        if (id < 0 || id >= strings.size()) {
+            throw new IOException("Corrupt event capture (unknown string " + id + ")");
+        }
+        return strings.get(id);
+    }
+
+    private boolean fill(int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= needed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
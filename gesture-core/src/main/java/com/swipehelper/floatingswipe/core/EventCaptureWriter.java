@@ -0,0 +1,195 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+
+// Escribe una captura de eventos con NIO a través de dos buffers directos reutilizados.
+// Solo reserva memoria la primera vez que aparece un paquete o una clase.
+// Cuando un buffer se llena se entrega al Executor de E/S para escribirlo y se sigue en el otro:
+// el hilo que captura no espera al disco salvo que el Executor lleve un buffer entero de retraso.
+// El Executor debe ser serie (un Handler, por ejemplo) para que los bloques no se desordenen.
+public final class EventCaptureWriter implements Closeable {
+
+    // ~2600 eventos por escritura en disco
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int BUFFER_COUNT = 2;
+    private static final int FULL = -2;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Sin hilo de E/S: escribe en el hilo que llama
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    // Un buffer y la tarea que lo escribe; la tarea se reutiliza en cada vuelta
+    private final class Block implements Runnable {
+        final ByteBuffer buffer = EventCaptureFormat.allocate(BUFFER_BYTES);
+
+        @Override
+        public void run() {
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                writeError = e;
+            }
+            buffer.clear();
+            freeBlocks.add(this);
+        }
+    }
+
+    private final FileChannel channel;
+    private final Executor ioExecutor;
+    private final ArrayBlockingQueue<Block> freeBlocks = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private Block block;
+    private ByteBuffer buffer;
+    private volatile IOException writeError;
+    private final HashMap<String, Integer> stringIds = new HashMap<>();
+    private final long baseNanos;
+    private long eventCount;
+
+    public EventCaptureWriter(File file, long baseNanos) throws IOException {
+        this(file, baseNanos, DIRECT);
+    }
+
+    public EventCaptureWriter(File file, long baseNanos, Executor ioExecutor) throws IOException {
+        // FileChannel.open(Path) requiere API 26; el stream funciona desde minSdk 24
+        channel = new FileOutputStream(file).getChannel();
+        this.ioExecutor = ioExecutor;
+        this.baseNanos = baseNanos;
+        for (int i = 1; i < BUFFER_COUNT; i++) {
+            freeBlocks.add(new Block());
+        }
+        block = new Block();
+        buffer = block.buffer;
+        EventCaptureFormat.writeHeader(buffer, baseNanos);
+    }
+
+    // Devuelve false si el evento ya no cabe en el formato (captura demasiado larga o demasiadas
+    // cadenas distintas): el llamador debe cerrar la captura
+    public boolean append(CapturedEvent event) throws IOException {
+        checkWriteError();
+        long eventOffset = event.eventNanos - baseNanos;
+        long receivedOffset = event.receivedNanos - baseNanos;
+        if (Math.abs(eventOffset) > EventCaptureFormat.MAX_OFFSET_NANOS
+                || Math.abs(receivedOffset) > EventCaptureFormat.MAX_OFFSET_NANOS) {
+            return false;
+        }
+        int packageId = stringId(event.packageName);
+        int classId = stringId(event.className);
+        if (packageId == FULL || classId == FULL) {
+            return false;
+        }
+
+        ensureRemaining(EventCaptureFormat.EVENT_SIZE);
+        buffer.put(EventCaptureFormat.TAG_EVENT);
+        buffer.putInt(event.type);
+        buffer.putInt((int) (eventOffset / 1000));
+        buffer.putInt((int) (receivedOffset / 1000));
+        buffer.putShort((short) packageId);
+        buffer.putShort((short) classId);
+        buffer.putShort(EventCaptureFormat.clampCoordinate(event.left));
+        buffer.putShort(EventCaptureFormat.clampCoordinate(event.top));
+        buffer.putShort(EventCaptureFormat.clampCoordinate(event.right));
+        buffer.putShort(EventCaptureFormat.clampCoordinate(event.bottom));
+        eventCount++;
+        return true;
+    }
+
+    // Id de la cadena; la primera vez se escribe su definición
+    private int stringId(String value) throws IOException {
+        if (value == null) {
+            return EventCaptureFormat.NO_STRING;
+        }
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (stringIds.size() >= EventCaptureFormat.MAX_STRINGS) {
+            return FULL;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        int length = utf8Prefix(bytes, Short.MAX_VALUE);
+        int newId = stringIds.size();
+        ensureRemaining(EventCaptureFormat.STRING_HEADER_SIZE + length);
+        buffer.put(EventCaptureFormat.TAG_STRING);
+        buffer.putShort((short) newId);
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+        stringIds.put(value, newId);
+        return newId;
+    }
+
+    // Longitud que cabe en max bytes sin partir un carácter: no corta en un byte de continuación
+    static int utf8Prefix(byte[] bytes, int max) {
+        if (bytes.length <= max) {
+            return bytes.length;
+        }
+        int length = max;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return length;
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    // Entrega el buffer actual al hilo de E/S y sigue en uno libre
+    public void flush() throws IOException {
+        buffer.flip();
+        ioExecutor.execute(block);
+        try {
+            block = freeBlocks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for event capture buffer");
+        }
+        buffer = block.buffer;
+        checkWriteError();
+    }
+
+    private void checkWriteError() throws IOException {
+        IOException error = writeError;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    // Espera a que se escriba lo pendiente (como mucho un buffer) antes de cerrar el fichero
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            for (int i = 1; i < BUFFER_COUNT; i++) {
+                freeBlocks.take();
+            }
+            checkWriteError();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted closing event capture");
+        } finally {
+            channel.close();
+        }
+    }
+}
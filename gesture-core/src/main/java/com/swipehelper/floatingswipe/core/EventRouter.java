@@ -0,0 +1,82 @@
+package com.swipehelper.floatingswipe.core;
+
+// Reparto de los eventos de accesibilidad que recibe SwipeSimulatorService, sin Android:
+// el servicio lo llama desde onAccessibilityEvent y el banco de pruebas lo alimenta con una
+// captura (EventCaptureReader) en la JVM. Los efectos (caché del contenedor, primer plano,
+// confirmación del scroll) quedan en el Target.
+// Llegan eventos de todas las apps: los de contenido solo cuentan si son de una app objetivo.
+// No es thread-safe: se usa desde el hilo principal; dump() lee los contadores sin sincronizar.
+public final class EventRouter {
+
+    // Mismos valores que AccessibilityEvent
+    public static final int TYPE_WINDOW_STATE_CHANGED = 0x00000020;
+    public static final int TYPE_WINDOW_CONTENT_CHANGED = 0x00000800;
+    public static final int TYPE_VIEW_SCROLLED = 0x00001000;
+
+    public interface Target {
+        // Cualquier cambio de ventana, antes de decidir de qué app es
+        void onWindowStateChanged();
+
+        // Ventana de una app con perfil (GestureProfileTable)
+        void onTargetWindow(int profile, long eventNanos);
+
+        // Ventana de otra app (diálogo, teclado o salida de la app objetivo)
+        void onOtherWindow(long eventNanos);
+
+        void onTargetScrolled(long eventNanos);
+
+        void onTargetContentChanged(long eventNanos);
+    }
+
+    private final GestureProfileTable profiles;
+    private final Target target;
+
+    private long routed;
+    private long ignored;
+
+    public EventRouter(GestureProfileTable profiles, Target target) {
+        this.profiles = profiles;
+        this.target = target;
+    }
+
+    public void route(int type, CharSequence packageName, long eventNanos) {
+        switch (type) {
+            case TYPE_WINDOW_STATE_CHANGED:
+                target.onWindowStateChanged();
+                // Única búsqueda en la tabla de perfiles: por cambio de ventana, no por swipe
+                int profile = profiles.indexOf(packageName);
+                if (profile != GestureProfileTable.NONE) {
+                    target.onTargetWindow(profile, eventNanos);
+                } else {
+                    target.onOtherWindow(eventNanos);
+                }
+                break;
+            case TYPE_VIEW_SCROLLED:
+                if (profiles.indexOf(packageName) == GestureProfileTable.NONE) {
+                    ignored++;
+                    return;
+                }
+                target.onTargetScrolled(eventNanos);
+                break;
+            case TYPE_WINDOW_CONTENT_CHANGED:
+                if (profiles.indexOf(packageName) == GestureProfileTable.NONE) {
+                    ignored++;
+                    return;
+                }
+                target.onTargetContentChanged(eventNanos);
+                break;
+            default:
+                ignored++;
+                return;
+        }
+        routed++;
+    }
+
+    public long getRoutedCount() {
+        return routed;
+    }
+
+    public long getIgnoredCount() {
+        return ignored;
+    }
+}
@@ -0,0 +1,124 @@
+package com.swipehelper.floatingswipe.core;
+
+// Intervalos entre frames consecutivos del overlay mientras anima o se arrastra.
+// Un frame es jank si llega más de 1.5 periodos de refresco después del anterior; los vsync
+// saltados cuentan como frames perdidos. Fuera de las sesiones el overlay no debería dibujar:
+// los dibujados en reposo se cuentan aparte (deben quedarse en 0 sobre el vídeo).
+// No es thread-safe: se usa desde el hilo principal; dump() lee los valores sin sincronizar.
+public final class FrameStats {
+
+    private static final long DEFAULT_REFRESH_NANOS = 16_666_667L; // 60 Hz
+
+    private final String name;
+    private final LatencyHistogram intervals;
+    private long refreshNanos = DEFAULT_REFRESH_NANOS;
+
+    // 0 = sin frame previo en la sesión actual
+    private long lastFrameNanos;
+    private boolean inSession;
+
+    private long sessions;
+    private long frames;
+    private long jankFrames;
+    private long droppedFrames;
+    private long activeDraws;
+    private long idleDraws;
+
+    public FrameStats(String name) {
+        this.name = name;
+        intervals = new LatencyHistogram(name + " frame interval");
+    }
+
+    public void setRefreshRate(float hz) {
+        refreshNanos = hz > 0 ? Math.round(1_000_000_000.0 / hz) : DEFAULT_REFRESH_NANOS;
+    }
+
+    public long getRefreshNanos() {
+        return refreshNanos;
+    }
+
+    public boolean isInSession() {
+        return inSession;
+    }
+
+    public void beginSession() {
+        if (inSession) {
+            return;
+        }
+        inSession = true;
+        lastFrameNanos = 0;
+        sessions++;
+    }
+
+    public void endSession() {
+        inSession = false;
+        lastFrameNanos = 0;
+    }
+
+    // frameTimeNanos del Choreographer (vsync del frame)
+    public void onFrame(long frameTimeNanos) {
+        if (!inSession) {
+            return;
+        }
+        if (lastFrameNanos != 0) {
+            long interval = frameTimeNanos - lastFrameNanos;
+            intervals.recordNanos(interval);
+            frames++;
+            if (interval * 2 > refreshNanos * 3) {
+                jankFrames++;
+                droppedFrames += Math.max(0, (interval + refreshNanos / 2) / refreshNanos - 1);
+            }
+        }
+        lastFrameNanos = frameTimeNanos;
+    }
+
+    // Un recorrido de dibujo del overlay
+    public void onDraw() {
+        if (inSession) {
+            activeDraws++;
+        } else {
+            idleDraws++;
+        }
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getJankFrames() {
+        return jankFrames;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public long getIdleDraws() {
+        return idleDraws;
+    }
+
+    // "overlay: 120 frames jank=2 (1.7%) dropped=3 sessions=9 draws=64 idleDraws=0 @16.7ms"
+    // y en otra línea el histograma de intervalos
+    public void appendSummary(StringBuilder out) {
+        out.append(name).append(": ").append(frames).append(" frames")
+                .append(" jank=").append(jankFrames)
+                .append(" (").append(frames == 0 ? 0 : Math.round(jankFrames * 1000.0 / frames) / 10.0).append("%)")
+                .append(" dropped=").append(droppedFrames)
+                .append(" sessions=").append(sessions)
+                .append(" draws=").append(activeDraws)
+                .append(" idleDraws=").append(idleDraws)
+                .append(" @").append(LatencyHistogram.formatMillis(refreshNanos / 1000))
+                .append("\n  ");
+        intervals.appendSummary(out);
+    }
+
+    public void reset() {
+        intervals.reset();
+        sessions = 0;
+        frames = 0;
+        jankFrames = 0;
+        droppedFrames = 0;
+        activeDraws = 0;
+        idleDraws = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.swipehelper.floatingswipe.core;
+
+// Envío de gestos de swipe ya planificados (dirección + número de trazos).
+// La implementación real usa AccessibilityService.dispatchGesture; SimulatedGestureDispatcher
+// la sustituye en la JVM para pruebas de carga deterministas.
+// Igual que en la plataforma, solo hay un gesto en curso: enviar otro cancela el anterior.
+public interface GestureDispatcher {
+
+    interface Listener {
+        // Se llama una vez por gesto enviado: completado o cancelado
+        void onGestureFinished(boolean completed);
+    }
+
+    void setListener(Listener listener);
+
+    // Devuelve false si el gesto no se pudo enviar (no habrá callback)
+    boolean dispatch(int command, int strokes);
+}
@@ -0,0 +1,189 @@
+package com.swipehelper.floatingswipe.core;
+
+// Etapa entre los comandos recibidos y dispatchGesture.
+// Mantiene una cola acotada de ráfagas; los toques seguidos en la misma dirección se fusionan
+// en una sola ráfaga (un gesto de varios trazos) y nunca se envía un gesto nuevo hasta que el
+// anterior termina, así el sistema no cancela el que está en curso.
+// No es thread-safe: se usa siempre desde el hilo que consume los comandos.
+public final class GesturePipeline {
+
+    public interface Sink {
+        // Devuelve false si el gesto no se pudo enviar.
+        // tapNanos es el momento del primer toque de la ráfaga.
+        boolean dispatch(int command, int strokes, long tapNanos);
+    }
+
+    private final Sink sink;
+    private int maxStrokes;
+
+    // Cola circular de ráfagas (comando + número de trazos + primer toque)
+    private final int[] burstCommands;
+    private final int[] burstStrokes;
+    private final long[] burstTapNanos;
+    private int headIndex;
+    private int size;
+
+    private boolean paused;
+    private boolean inFlight;
+    private int inFlightStrokes;
+    private long inFlightTapNanos;
+
+    private long queuedCount;
+    private long coalescedCount;
+    private long droppedCount;
+    private long dispatchedCount;
+    private long completedCount;
+    private long cancelledCount;
+
+    public GesturePipeline(Sink sink, int capacity, int maxStrokes) {
+        if (capacity < 1 || maxStrokes < 1) {
+            throw new IllegalArgumentException("capacity and maxStrokes must be positive");
+        }
+        this.sink = sink;
+        this.maxStrokes = maxStrokes;
+        this.burstCommands = new int[capacity];
+        this.burstStrokes = new int[capacity];
+        this.burstTapNanos = new long[capacity];
+    }
+
+    // Cambia el límite de trazos por gesto (p. ej. al cambiar la duración del swipe)
+    public void setMaxStrokes(int maxStrokes) {
+        if (maxStrokes < 1) {
+            throw new IllegalArgumentException("maxStrokes must be positive");
+        }
+        this.maxStrokes = maxStrokes;
+        for (int i = 0; i < size; i++) {
+            int index = (headIndex + i) % burstStrokes.length;
+            burstStrokes[index] = Math.min(burstStrokes[index], maxStrokes);
+        }
+    }
+
+    // En pausa se sigue encolando y fusionando, pero no se envía nada (p. ej. durante un scroll
+    // continuo, que cualquier otro gesto cancelaría); al reanudar sale lo pendiente
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        pump();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void submit(int command, long tapNanos) {
+        queuedCount++;
+
+        if (size > 0) {
+            int tail = (headIndex + size - 1) % burstCommands.length;
+            if (burstCommands[tail] == command && burstStrokes[tail] < maxStrokes) {
+                burstStrokes[tail]++;
+                coalescedCount++;
+                pump();
+                return;
+            }
+        }
+
+        if (size == burstCommands.length) {
+            droppedCount++;
+            return;
+        }
+
+        int tail = (headIndex + size) % burstCommands.length;
+        burstCommands[tail] = command;
+        burstStrokes[tail] = 1;
+        burstTapNanos[tail] = tapNanos;
+        size++;
+        pump();
+    }
+
+    // Llamar desde onCompleted / onCancelled del gesto en curso
+    public void onGestureFinished(boolean completed) {
+        if (!inFlight) {
+            return;
+        }
+        if (completed) {
+            completedCount += inFlightStrokes;
+        } else {
+            cancelledCount += inFlightStrokes;
+        }
+        inFlight = false;
+        inFlightStrokes = 0;
+        pump();
+    }
+
+    // Descarta lo pendiente (por ejemplo al desconectar el servicio).
+    // El gesto en curso cuenta como cancelado: su callback, si llega, ya se ignora.
+    public void clear() {
+        droppedCount += pendingStrokes();
+        cancelledCount += inFlightStrokes;
+        size = 0;
+        inFlight = false;
+        inFlightStrokes = 0;
+    }
+
+    private void pump() {
+        while (!paused && !inFlight && size > 0) {
+            int command = burstCommands[headIndex];
+            int strokes = burstStrokes[headIndex];
+            long tapNanos = burstTapNanos[headIndex];
+            headIndex = (headIndex + 1) % burstCommands.length;
+            size--;
+
+            if (sink.dispatch(command, strokes, tapNanos)) {
+                inFlight = true;
+                inFlightStrokes = strokes;
+                inFlightTapNanos = tapNanos;
+                dispatchedCount++;
+            } else {
+                droppedCount += strokes;
+            }
+        }
+    }
+
+    public long getInFlightTapNanos() {
+        return inFlightTapNanos;
+    }
+
+    public int getInFlightStrokes() {
+        return inFlightStrokes;
+    }
+
+    public boolean isInFlight() {
+        return inFlight;
+    }
+
+    public boolean isIdle() {
+        return !inFlight && size == 0;
+    }
+
+    public int pendingStrokes() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += burstStrokes[(headIndex + i) % burstCommands.length];
+        }
+        return total;
+    }
+
+    public long getQueuedCount() {
+        return queuedCount;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+}
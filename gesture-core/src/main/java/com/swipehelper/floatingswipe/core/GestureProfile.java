@@ -0,0 +1,59 @@
+package com.swipehelper.floatingswipe.core;
+
+// Forma del swipe para una app: punto, distancia, duración y backend preferido. Inmutable.
+// El perfil con userSettings toma distancia, duración y punto de SwipeSettings (y admite el
+// ajuste automático); el resto son valores fijos para cada feed.
+public final class GestureProfile {
+
+    public final String name;
+    public final String[] packageNames;
+    // NaN = automático (centro del contenedor desplazable o de la pantalla)
+    public final float anchorFractionX;
+    public final float anchorFractionY;
+    public final float distance;
+    public final long duration;
+    // false: siempre trazo sintético aunque el contenedor anuncie ACTION_SCROLL_*
+    public final boolean preferNodeActions;
+    public final boolean userSettings;
+
+    public GestureProfile(String name, String[] packageNames, float anchorFractionX, float anchorFractionY,
+                          float distance, long duration, boolean preferNodeActions, boolean userSettings) {
+        this.name = name;
+        this.packageNames = packageNames;
+        this.anchorFractionX = anchorFractionX;
+        this.anchorFractionY = anchorFractionY;
+        this.distance = Math.max(SwipeSettings.MIN_DISTANCE, Math.min(distance, SwipeSettings.MAX_DISTANCE));
+        this.duration = Math.max(SwipeSettings.MIN_DURATION, Math.min(duration, SwipeSettings.MAX_DURATION));
+        this.preferNodeActions = preferNodeActions;
+        this.userSettings = userSettings;
+    }
+
+    // Perfil que sigue los ajustes del usuario
+    public static GestureProfile fromSettings(String name, String[] packageNames, boolean preferNodeActions) {
+        return new GestureProfile(name, packageNames, Float.NaN, Float.NaN, SwipeSettings.DEFAULT_DISTANCE,
+                SwipeSettings.DEFAULT_DURATION, preferNodeActions, true);
+    }
+
+    public float anchorFractionX(SwipeSettings settings) {
+        return userSettings ? settings.anchorFractionX : anchorFractionX;
+    }
+
+    public float anchorFractionY(SwipeSettings settings) {
+        return userSettings ? settings.anchorFractionY : anchorFractionY;
+    }
+
+    public float distance(SwipeSettings settings) {
+        return userSettings ? settings.distance : distance;
+    }
+
+    public long duration(SwipeSettings settings) {
+        return userSettings ? settings.duration : duration;
+    }
+
+    @Override
+    public String toString() {
+        return name + (userSettings ? " (settings)" : " " + distance + "px " + duration + "ms anchor="
+                + (Float.isNaN(anchorFractionX) ? "auto" : anchorFractionX + "," + anchorFractionY))
+                + (preferNodeActions ? " node-action" : " gesture");
+    }
+}
@@ -0,0 +1,54 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.util.HashMap;
+
+// Perfiles por paquete, construidos una sola vez. Cada perfil tiene un índice fijo: quien
+// precalcula datos por perfil (gestos, trazos máximos...) los guarda en arrays por índice y el
+// cambio de perfil es solo cambiar ese índice. La búsqueda por paquete se hace al cambiar de
+// ventana, nunca en cada swipe. Inmutable tras construirse: se puede leer desde cualquier hilo.
+public final class GestureProfileTable {
+
+    public static final int NONE = -1;
+
+    private final GestureProfile[] profiles;
+    private final HashMap<String, Integer> indexByPackage = new HashMap<>();
+
+    public GestureProfileTable(GestureProfile... profiles) {
+        this.profiles = profiles;
+        for (int i = 0; i < profiles.length; i++) {
+            for (String packageName : profiles[i].packageNames) {
+                indexByPackage.put(packageName, i);
+            }
+        }
+    }
+
+    // Reels de Instagram siguen los ajustes del usuario; los otros feeds, valores propios
+    public static GestureProfileTable createDefault() {
+        return new GestureProfileTable(
+                GestureProfile.fromSettings("instagram", new String[]{"com.instagram.android"}, true),
+                // El feed de TikTok es un ViewPager vertical: trazo largo y algo más lento por debajo
+                // del centro, lejos de los botones laterales; las acciones de nodo no siempre avanzan
+                new GestureProfile("tiktok", new String[]{"com.zhiliaoapp.musically", "com.ss.android.ugc.trill"},
+                        0.4f, 0.6f, 400f, 150, false, false),
+                // En YouTube el contenedor desplazable puede ser la portada y no el de Shorts
+                new GestureProfile("shorts", new String[]{"com.google.android.youtube"},
+                        0.4f, 0.55f, 350f, 120, false, false));
+    }
+
+    public int size() {
+        return profiles.length;
+    }
+
+    public GestureProfile get(int index) {
+        return profiles[index];
+    }
+
+    // String.toString() devuelve la misma instancia: sin reservas para los nombres de paquete
+    public int indexOf(CharSequence packageName) {
+        if (packageName == null) {
+            return NONE;
+        }
+        Integer index = indexByPackage.get(packageName.toString());
+        return index != null ? index : NONE;
+    }
+}
@@ -0,0 +1,118 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Histograma de latencias con memoria fija (cubos log-lineales en microsegundos).
+// Un solo hilo escribe; cualquier hilo puede leer percentiles sin bloquear.
+// Error relativo por cubo de ~12% (8 sub-cubos por potencia de 2).
+public final class LatencyHistogram {
+
+    private static final int LINEAR_LIMIT = 16; // valores < 16 us tienen cubo propio
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36; // ~19 horas en microsegundos
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - 4 + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000);
+    }
+
+    public void recordMicros(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+        counts.incrementAndGet(bucketFor(micros));
+        total.incrementAndGet();
+        if (micros > max.get()) {
+            max.set(micros);
+        }
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    // percentile entre 0 y 100; devuelve el límite superior del cubo en microsegundos
+    public long getPercentileMicros(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        max.set(0);
+    }
+
+    public static int bucketFor(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    public static long upperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        long base = 1L << exponent;
+        long step = 1L << (exponent - SUB_BUCKET_BITS);
+        return base + (sub + 1) * step - 1;
+    }
+
+    // Formato: nombre n=.. p50=.. p90=.. p99=.. max=.. (en ms con un decimal)
+    public void appendSummary(StringBuilder out) {
+        out.append(name)
+                .append(" n=").append(getCount())
+                .append(" p50=").append(formatMillis(getPercentileMicros(50)))
+                .append(" p90=").append(formatMillis(getPercentileMicros(90)))
+                .append(" p99=").append(formatMillis(getPercentileMicros(99)))
+                .append(" max=").append(formatMillis(getMaxMicros()));
+    }
+
+    public static String formatMillis(long micros) {
+        long tenths = (micros + 50) / 100;
+        return (tenths / 10) + "." + (tenths % 10) + "ms";
+    }
+}
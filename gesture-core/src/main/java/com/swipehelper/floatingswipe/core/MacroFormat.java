@@ -0,0 +1,65 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Formato binario de las macros: cabecera de 8 bytes y registros de ancho fijo (32 bytes).
+//
+//   cabecera: int magic 'SWMC' | short versión | short tamaño de registro
+//   registro: long offsetNanos | int op | int durationMs | float startX, startY, endX, endY
+//
+// Little-endian. El ancho fijo permite leer la macro en streaming sin cargarla entera.
+public final class MacroFormat {
+
+    public static final int MAGIC = 0x434d5753; // "SWMC"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 32;
+
+    // Trazo libre de performCustomSwipe (los comandos de swipe usan su propio valor)
+    public static final int OP_CUSTOM_STROKE = 100;
+
+    private MacroFormat() {
+    }
+
+    public static ByteBuffer allocate(int records) {
+        return ByteBuffer.allocateDirect(Math.max(HEADER_SIZE, records * RECORD_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) RECORD_SIZE);
+    }
+
+    public static void readHeader(ByteBuffer buffer) throws IOException {
+        int magic = buffer.getInt();
+        short version = buffer.getShort();
+        short recordSize = buffer.getShort();
+        if (magic != MAGIC || version != VERSION || recordSize != RECORD_SIZE) {
+            throw new IOException("Not a swipe macro file (magic=" + Integer.toHexString(magic)
+                    + " version=" + version + " record=" + recordSize + ")");
+        }
+    }
+
+    public static void write(ByteBuffer buffer, MacroRecord record) {
+        buffer.putLong(record.offsetNanos);
+        buffer.putInt(record.op);
+        buffer.putInt(record.durationMs);
+        buffer.putFloat(record.startX);
+        buffer.putFloat(record.startY);
+        buffer.putFloat(record.endX);
+        buffer.putFloat(record.endY);
+    }
+
+    public static void read(ByteBuffer buffer, MacroRecord record) {
+        record.offsetNanos = buffer.getLong();
+        record.op = buffer.getInt();
+        record.durationMs = buffer.getInt();
+        record.startX = buffer.getFloat();
+        record.startY = buffer.getFloat();
+        record.endX = buffer.getFloat();
+        record.endY = buffer.getFloat();
+    }
+}
@@ -0,0 +1,60 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Lee una macro en streaming: solo mantiene en memoria un bloque de registros
+public final class MacroReader implements Closeable {
+
+    private static final int BUFFERED_RECORDS = 128;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = MacroFormat.allocate(BUFFERED_RECORDS);
+
+    public MacroReader(File file) throws IOException {
+        channel = new FileInputStream(file).getChannel();
+        buffer.limit(0);
+        if (!fill(MacroFormat.HEADER_SIZE)) {
+            channel.close();
+            throw new IOException("Truncated swipe macro file");
+        }
+        try {
+            MacroFormat.readHeader(buffer);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Devuelve false al llegar al final (un registro incompleto al final se ignora)
+    public boolean next(MacroRecord record) throws IOException {
+        if (!fill(MacroFormat.RECORD_SIZE)) {
+            return false;
+        }
+        MacroFormat.read(buffer, record);
+        return true;
+    }
+
+    private boolean fill(int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= needed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.swipehelper.floatingswipe.core;
+
+// Una entrada de una macro. Es mutable para reutilizarla al leer sin reservar memoria.
+public final class MacroRecord {
+
+    // Tiempo desde el inicio de la grabación
+    public long offsetNanos;
+    // SwipeCommand.SWIPE_UP / SWIPE_DOWN o MacroFormat.OP_CUSTOM_STROKE
+    public int op;
+    public int durationMs;
+    public float startX;
+    public float startY;
+    public float endX;
+    public float endY;
+
+    public void setCommand(long offsetNanos, int command) {
+        this.offsetNanos = offsetNanos;
+        this.op = command;
+        this.durationMs = 0;
+        this.startX = 0;
+        this.startY = 0;
+        this.endX = 0;
+        this.endY = 0;
+    }
+
+    public void setStroke(long offsetNanos, float startX, float startY, float endX, float endY, int durationMs) {
+        this.offsetNanos = offsetNanos;
+        this.op = MacroFormat.OP_CUSTOM_STROKE;
+        this.durationMs = durationMs;
+        this.startX = startX;
+        this.startY = startY;
+        this.endX = endX;
+        this.endY = endY;
+    }
+}
@@ -0,0 +1,53 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Escribe una macro en disco con NIO a través de un buffer directo reutilizado
+public final class MacroWriter implements Closeable {
+
+    private static final int BUFFERED_RECORDS = 128;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = MacroFormat.allocate(BUFFERED_RECORDS);
+    private long recordCount;
+
+    public MacroWriter(File file) throws IOException {
+        // FileChannel.open(Path) requiere API 26; el stream funciona desde minSdk 24
+        channel = new FileOutputStream(file).getChannel();
+        MacroFormat.writeHeader(buffer);
+    }
+
+    public void append(MacroRecord record) throws IOException {
+        if (buffer.remaining() < MacroFormat.RECORD_SIZE) {
+            flush();
+        }
+        MacroFormat.write(buffer, record);
+        recordCount++;
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.swipehelper.floatingswipe.core;
+
+// Cálculos de posición del overlay flotante (arrastre y pegado a los bordes)
+public final class OverlayBounds {
+
+    // Movimiento mínimo para considerar que el usuario está arrastrando
+    public static final float DRAG_SLOP = 10f;
+
+    private OverlayBounds() {
+    }
+
+    public static boolean exceedsDragSlop(float deltaX, float deltaY) {
+        return Math.abs(deltaX) > DRAG_SLOP || Math.abs(deltaY) > DRAG_SLOP;
+    }
+
+    // Mantener dentro de los límites de la pantalla
+    public static int clamp(int position, int screenSize, int viewSize) {
+        return Math.max(0, Math.min(position, screenSize - viewSize));
+    }
+
+    // Borde más cercano (izquierdo o derecho)
+    public static int snapX(int x, int screenWidth, int viewWidth) {
+        if (x < screenWidth / 2) {
+            return 0;
+        }
+        return screenWidth - viewWidth;
+    }
+
+    // Posición intermedia de la animación de pegado (desaceleración cuadrática)
+    public static int interpolate(int start, int end, long elapsedNanos, long durationNanos) {
+        if (elapsedNanos >= durationNanos) {
+            return end;
+        }
+        if (elapsedNanos <= 0) {
+            return start;
+        }
+        float t = (float) elapsedNanos / durationNanos;
+        float eased = 1f - (1f - t) * (1f - t);
+        return start + Math.round((end - start) * eased);
+    }
+}
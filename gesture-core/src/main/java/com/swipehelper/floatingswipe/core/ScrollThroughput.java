@@ -0,0 +1,47 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Elementos avanzados por segundo de scroll activo en un modo (toques, mantener pulsado...).
+// Una sesión va desde el primer toque (o el inicio de la pulsación) hasta que termina el
+// último gesto; las pausas entre sesiones no cuentan.
+public final class ScrollThroughput {
+
+    private final String name;
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong activeNanos = new AtomicLong();
+    private final AtomicLong sessions = new AtomicLong();
+
+    public ScrollThroughput(String name) {
+        this.name = name;
+    }
+
+    public void recordSession(long sessionItems, long sessionNanos) {
+        if (sessionNanos <= 0) {
+            return;
+        }
+        items.addAndGet(sessionItems);
+        activeNanos.addAndGet(sessionNanos);
+        sessions.incrementAndGet();
+    }
+
+    public double getItemsPerSecond() {
+        long nanos = activeNanos.get();
+        return nanos == 0 ? 0 : items.get() * 1_000_000_000.0 / nanos;
+    }
+
+    // "tap: 2.4 items/s (36 items, 15000.0ms, 7 sessions)"
+    public void appendSummary(StringBuilder out) {
+        out.append(name).append(": ")
+                .append(Math.round(getItemsPerSecond() * 10) / 10.0).append(" items/s (")
+                .append(items.get()).append(" items, ")
+                .append(LatencyHistogram.formatMillis(activeNanos.get() / 1000)).append(", ")
+                .append(sessions.get()).append(" sessions)");
+    }
+
+    public void reset() {
+        items.set(0);
+        activeNanos.set(0);
+        sessions.set(0);
+    }
+}
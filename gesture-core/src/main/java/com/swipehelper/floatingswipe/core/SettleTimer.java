@@ -0,0 +1,98 @@
+package com.swipehelper.floatingswipe.core;
+
+// Tiempo hasta que la lista se asienta tras un swipe, por forma de trazo (StrokeProfile).
+// Se mide desde el envío del gesto hasta el último TYPE_VIEW_SCROLLED / contenido cambiado de la
+// app objetivo, cuando pasa QUIET_NANOS sin eventos (el llamador programa ese aviso y llama a
+// finish()). Sin ningún evento es un swipe "sin movimiento"; si llega otro swipe antes de
+// asentarse la medición se descarta como "solapada".
+// No es thread-safe: se usa desde el hilo principal; dump() lee los valores sin sincronizar.
+public final class SettleTimer {
+
+    public static final long QUIET_NANOS = 300_000_000L;
+    // Sin eventos en este margen el gesto no movió la lista
+    public static final long FIRST_EVENT_TIMEOUT_NANOS = 1_000_000_000L;
+    // Los eventos continuos (p. ej. el progreso del vídeo) no alargan la medición más allá de esto
+    public static final long MAX_SETTLE_NANOS = 2_000_000_000L;
+
+    private final LatencyHistogram[] settle = new LatencyHistogram[StrokeProfile.COUNT];
+    private final long[] noMovement = new long[StrokeProfile.COUNT];
+    private final long[] overlapped = new long[StrokeProfile.COUNT];
+
+    // -1 = sin medición abierta
+    private int profile = -1;
+    private long dispatchNanos;
+    private long lastEventNanos;
+    private int events;
+
+    public SettleTimer() {
+        for (int i = 0; i < settle.length; i++) {
+            settle[i] = new LatencyHistogram("settle " + StrokeProfile.name(i));
+        }
+    }
+
+    public boolean isOpen() {
+        return profile >= 0;
+    }
+
+    public void start(int profile, long dispatchNanos) {
+        if (this.profile >= 0) {
+            overlapped[this.profile]++;
+        }
+        this.profile = StrokeProfile.clamp(profile);
+        this.dispatchNanos = dispatchNanos;
+        this.lastEventNanos = 0;
+        this.events = 0;
+    }
+
+    // Devuelve false si la medición ya terminó (no hay que seguir esperando el silencio)
+    public boolean onScrollEvent(long eventNanos) {
+        if (profile < 0) {
+            return false;
+        }
+        if (eventNanos < dispatchNanos) {
+            return true;
+        }
+        if (eventNanos - dispatchNanos > MAX_SETTLE_NANOS) {
+            finish();
+            return false;
+        }
+        lastEventNanos = eventNanos;
+        events++;
+        return true;
+    }
+
+    public void finish() {
+        if (profile < 0) {
+            return;
+        }
+        if (events == 0) {
+            noMovement[profile]++;
+        } else {
+            settle[profile].recordNanos(lastEventNanos - dispatchNanos);
+        }
+        profile = -1;
+    }
+
+    public LatencyHistogram getHistogram(int profile) {
+        return settle[StrokeProfile.clamp(profile)];
+    }
+
+    // Una línea por forma con mediciones: histograma + swipes sin movimiento y solapados
+    public void appendSummary(StringBuilder out) {
+        boolean first = true;
+        for (int i = 0; i < settle.length; i++) {
+            if (settle[i].getCount() == 0 && noMovement[i] == 0 && overlapped[i] == 0) {
+                continue;
+            }
+            if (!first) {
+                out.append("\n  ");
+            }
+            first = false;
+            settle[i].appendSummary(out);
+            out.append(" noMovement=").append(noMovement[i]).append(" overlapped=").append(overlapped[i]);
+        }
+        if (first) {
+            out.append("settle: no samples");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.util.Random;
+
+// Sustituto determinista de dispatchGesture sobre un reloj virtual (ns), para pruebas de carga
+// del camino de comandos sin teléfono.
+// Modela: latencia de envío (base + jitter), duración por trazo, cancelaciones aleatorias del
+// gesto en curso (toques reales del usuario) y cancelación del gesto anterior al enviar otro.
+// Los callbacks se entregan dentro de advanceTo()/cancelInFlight(), nunca desde otro hilo; con la
+// misma semilla y la misma secuencia de llamadas el resultado es siempre el mismo.
+// No es thread-safe.
+public final class SimulatedGestureDispatcher implements GestureDispatcher {
+
+    private final Random random;
+    private final long baseLatencyNanos;
+    private final long jitterNanos;
+    private final long strokeNanos;
+    private double cancelProbability;
+    private Listener listener;
+
+    private long nowNanos;
+    private boolean inFlight;
+    private boolean inFlightWillCancel;
+    private long inFlightFinishNanos;
+
+    private long dispatchedCount;
+    private long completedCount;
+    private long cancelledCount;
+
+    public SimulatedGestureDispatcher(long seed, long baseLatencyNanos, long jitterNanos, long strokeNanos) {
+        this.random = new Random(seed);
+        this.baseLatencyNanos = baseLatencyNanos;
+        this.jitterNanos = jitterNanos;
+        this.strokeNanos = strokeNanos;
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Probabilidad de que cada gesto se cancele antes de terminar
+    public void setCancelProbability(double cancelProbability) {
+        this.cancelProbability = cancelProbability;
+    }
+
+    @Override
+    public boolean dispatch(int command, int strokes) {
+        if (strokes < 1) {
+            return false;
+        }
+        if (inFlight) {
+            // Como en la plataforma: el gesto nuevo cancela el que estaba en curso
+            finishInFlight(false);
+        }
+        long latency = baseLatencyNanos + (jitterNanos > 0 ? (long) (random.nextDouble() * jitterNanos) : 0);
+        long gestureNanos = strokes * strokeNanos;
+        inFlightWillCancel = random.nextDouble() < cancelProbability;
+        if (inFlightWillCancel) {
+            // Se interrumpe en algún punto del gesto
+            gestureNanos = (long) (random.nextDouble() * gestureNanos);
+        }
+        inFlightFinishNanos = nowNanos + latency + gestureNanos;
+        inFlight = true;
+        dispatchedCount++;
+        return true;
+    }
+
+    // Cancela ya el gesto en curso (tormenta de cancelaciones)
+    public void cancelInFlight() {
+        if (inFlight) {
+            finishInFlight(false);
+        }
+    }
+
+    public long nowNanos() {
+        return nowNanos;
+    }
+
+    public boolean isInFlight() {
+        return inFlight;
+    }
+
+    // Long.MAX_VALUE si no hay nada pendiente
+    public long nextEventNanos() {
+        return inFlight ? inFlightFinishNanos : Long.MAX_VALUE;
+    }
+
+    // Avanza el reloj entregando los callbacks que vencen por el camino
+    public void advanceTo(long targetNanos) {
+        while (inFlight && inFlightFinishNanos <= targetNanos) {
+            nowNanos = Math.max(nowNanos, inFlightFinishNanos);
+            finishInFlight(!inFlightWillCancel);
+        }
+        nowNanos = Math.max(nowNanos, targetNanos);
+    }
+
+    // Hasta que no quede ningún gesto en curso (el listener puede ir enviando más)
+    public void runUntilIdle() {
+        while (inFlight) {
+            advanceTo(inFlightFinishNanos);
+        }
+    }
+
+    private void finishInFlight(boolean completed) {
+        inFlight = false;
+        if (completed) {
+            completedCount++;
+        } else {
+            cancelledCount++;
+        }
+        // El listener puede enviar el siguiente gesto desde aquí
+        if (listener != null) {
+            listener.onGestureFinished(completed);
+        }
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+}
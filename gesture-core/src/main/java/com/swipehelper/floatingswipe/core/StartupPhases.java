@@ -0,0 +1,100 @@
+package com.swipehelper.floatingswipe.core;
+
+// Cuentas del arranque del overlay por fases, sin Android: StartupTrace pone el reloj
+// (elapsedRealtimeNanos) y las secciones de systrace, aquí solo se guardan y se comparan marcas.
+// Una marca a 0 es una fase que no ha pasado en este arranque. No es thread-safe.
+public final class StartupPhases {
+
+    public static final int REQUESTED = 0;        // MainActivity llama a startForegroundService
+    public static final int SERVICE_CREATE = 1;   // entrada en FloatingButtonService.onCreate
+    public static final int VIEW_BUILT = 2;       // vista del overlay construida
+    public static final int WINDOW_ADDED = 3;     // windowManager.addView terminado
+    public static final int FOREGROUND = 4;       // startForeground terminado (canal + notificación)
+    public static final int FIRST_FRAME = 5;      // primer onPreDraw del overlay
+    public static final int COUNT = 6;
+
+    // Presupuesto del arranque en frío, de la petición al primer frame
+    public static final long BUDGET_NANOS = 250_000_000L;
+
+    private static final String[] NAMES = {
+            "requested", "serviceCreate", "viewBuilt", "windowAdded", "foreground", "firstFrame"
+    };
+
+    private final long[] marks = new long[COUNT];
+    private long lastStartupNanos = -1;
+    // Hay un startForegroundService pendiente de llegar a onCreate
+    private boolean requestPending;
+
+    public static String name(int phase) {
+        return NAMES[phase];
+    }
+
+    public void requested(long nowNanos) {
+        reset();
+        mark(REQUESTED, nowNanos);
+        requestPending = true;
+    }
+
+    // El servicio puede arrancar sin pasar por MainActivity (p. ej. al reiniciarse por START_STICKY)
+    public void serviceCreated(long nowNanos) {
+        if (!requestPending) {
+            reset();
+        }
+        requestPending = false;
+        mark(SERVICE_CREATE, nowNanos);
+    }
+
+    public void mark(int phase, long nowNanos) {
+        marks[phase] = nowNanos;
+    }
+
+    // Cierra el arranque en curso y devuelve su duración total
+    public long finish(long nowNanos) {
+        mark(FIRST_FRAME, nowNanos);
+        lastStartupNanos = marks[FIRST_FRAME] - origin();
+        return lastStartupNanos;
+    }
+
+    // -1 si todavía no ha terminado ningún arranque
+    public long getLastStartupNanos() {
+        return lastStartupNanos;
+    }
+
+    // Tiempo de la fase desde la primera marca; -1 si no ha pasado
+    public long offsetNanos(int phase) {
+        return marks[phase] == 0 ? -1 : marks[phase] - origin();
+    }
+
+    public boolean isOverBudget(long budgetNanos) {
+        return lastStartupNanos > budgetNanos;
+    }
+
+    // "total=12.3ms (requested=0.0 serviceCreate=4.1 ...)" relativo a la primera marca
+    public void append(StringBuilder out) {
+        out.append("total=").append(formatMillis(lastStartupNanos)).append("ms (");
+        for (int i = 0; i < COUNT; i++) {
+            if (i > 0) {
+                out.append(' ');
+            }
+            out.append(NAMES[i]).append('=').append(formatMillis(offsetNanos(i)));
+        }
+        out.append(')');
+    }
+
+    private void reset() {
+        for (int i = 0; i < COUNT; i++) {
+            marks[i] = 0;
+        }
+    }
+
+    private long origin() {
+        return marks[REQUESTED] != 0 ? marks[REQUESTED] : marks[SERVICE_CREATE];
+    }
+
+    private static String formatMillis(long nanos) {
+        if (nanos < 0) {
+            return "-";
+        }
+        return String.valueOf(Math.round(nanos / 100_000.0) / 10.0);
+    }
+}
@@ -0,0 +1,83 @@
+package com.swipehelper.floatingswipe.core;
+
+// Uso de CPU y memoria del proceso repartido por estados (p. ej. overlay visible / hibernado).
+// El llamador pasa las lecturas al cambiar de estado: tiempo real, CPU consumida por el proceso
+// y memoria en uso. La memoria de un estado se toma al salir de él, cuando ya se estabilizó.
+// No es thread-safe: se usa desde un solo hilo; dump() lee los valores sin sincronizar.
+public final class StateUsage {
+
+    private final String[] names;
+    private final long[] wallNanos;
+    private final long[] cpuMillis;
+    private final long[] entries;
+    private final long[] lastMemoryBytes;
+    private final long[] maxMemoryBytes;
+
+    private int current = -1;
+    private long enteredWallNanos;
+    private long enteredCpuMillis;
+
+    public StateUsage(String... names) {
+        this.names = names;
+        this.wallNanos = new long[names.length];
+        this.cpuMillis = new long[names.length];
+        this.entries = new long[names.length];
+        this.lastMemoryBytes = new long[names.length];
+        this.maxMemoryBytes = new long[names.length];
+    }
+
+    public int getCurrent() {
+        return current;
+    }
+
+    public void enter(int state, long nowWallNanos, long nowCpuMillis, long memoryBytes) {
+        if (state == current) {
+            return;
+        }
+        leaveCurrent(nowWallNanos, nowCpuMillis, memoryBytes);
+        current = state;
+        entries[state]++;
+        enteredWallNanos = nowWallNanos;
+        enteredCpuMillis = nowCpuMillis;
+    }
+
+    private void leaveCurrent(long nowWallNanos, long nowCpuMillis, long memoryBytes) {
+        if (current < 0) {
+            return;
+        }
+        wallNanos[current] += nowWallNanos - enteredWallNanos;
+        cpuMillis[current] += nowCpuMillis - enteredCpuMillis;
+        lastMemoryBytes[current] = memoryBytes;
+        maxMemoryBytes[current] = Math.max(maxMemoryBytes[current], memoryBytes);
+    }
+
+    // "visible: 61.2s cpu=1.3% entries=4 mem=5.1MB (max 5.8MB)" por estado; el estado actual
+    // incluye el tramo en curso y la memoria de memoryBytes
+    public void appendSummary(StringBuilder out, long nowWallNanos, long nowCpuMillis, long memoryBytes) {
+        for (int i = 0; i < names.length; i++) {
+            long wall = wallNanos[i];
+            long cpu = cpuMillis[i];
+            long memory = lastMemoryBytes[i];
+            long maxMemory = maxMemoryBytes[i];
+            if (i == current) {
+                wall += nowWallNanos - enteredWallNanos;
+                cpu += nowCpuMillis - enteredCpuMillis;
+                memory = memoryBytes;
+                maxMemory = Math.max(maxMemory, memoryBytes);
+            }
+            if (i > 0) {
+                out.append("\n  ");
+            }
+            out.append(names[i]).append(i == current ? "*: " : ": ")
+                    .append(Math.round(wall / 100_000_000.0) / 10.0).append("s")
+                    .append(" cpu=").append(wall == 0 ? 0 : Math.round(cpu * 10_000_000_000.0 / wall) / 100.0).append('%')
+                    .append(" entries=").append(entries[i])
+                    .append(" mem=").append(formatMegabytes(memory))
+                    .append(" (max ").append(formatMegabytes(maxMemory)).append(')');
+        }
+    }
+
+    private static String formatMegabytes(long bytes) {
+        return Math.round(bytes / 104_857.6) / 10.0 + "MB";
+    }
+}
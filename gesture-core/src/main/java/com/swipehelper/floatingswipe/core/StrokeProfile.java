@@ -0,0 +1,118 @@
+package com.swipehelper.floatingswipe.core;
+
+// Formas del trazo de un swipe. GestureDescription recorre el path a velocidad constante sobre
+// su longitud, así que la forma es lo único que cambia la velocidad vertical con la que el dedo
+// se levanta (la que decide el fling de la lista):
+// - LINEAR: recta de dos puntos, velocidad uniforme (el trazo original).
+// - EASED: el primer 30% avanza en zigzag lateral y el resto en recta. El desvío es el 10% de la
+//   distancia con el tope maxWobble que pasa la app (unos dp por debajo del touch slop), así el
+//   zigzag no cuenta como movimiento horizontal. El recorrido extra acelera la recta final:
+//   ~1.3x al levantar con 200 px en una pantalla xhdpi, casi nada con distancias largas.
+//   Va hacia la derecha salvo que no quepa (ancla en el borde derecho).
+// - FLICK: 60% de la distancia en el 40% del tiempo; golpe corto y rápido.
+// - CURVED: arco de pulgar derecho (se abomba hacia la izquierda), muestreado en segmentos.
+//   Con el ancla pegada al borde izquierdo se abomba hacia el centro en vez de aplastarse.
+public final class StrokeProfile {
+
+    public static final int LINEAR = 0;
+    public static final int EASED = 1;
+    public static final int FLICK = 2;
+    public static final int CURVED = 3;
+    public static final int COUNT = 4;
+
+    // Puntos máximos de un trazo (CURVED); out de computePath necesita MAX_POINTS * 2
+    public static final int MAX_POINTS = 9;
+
+    private static final String[] NAMES = {"linear", "eased", "flick", "curved"};
+
+    private static final int EASE_STEPS = 6;
+    private static final float EASE_LEAD = 0.3f;      // fracción de la distancia en zigzag
+    private static final float EASE_WOBBLE = 0.1f;    // desvío lateral, fracción de la distancia (con tope)
+    private static final float FLICK_DISTANCE = 0.6f;
+    private static final int FLICK_DURATION_PERCENT = 40;
+    private static final int CURVE_SEGMENTS = MAX_POINTS - 1;
+    private static final float CURVE_BULGE = 0.12f;
+
+    private StrokeProfile() {
+    }
+
+    public static String name(int profile) {
+        return NAMES[clamp(profile)];
+    }
+
+    // Perfil por nombre; LINEAR si no se reconoce
+    public static int fromName(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return LINEAR;
+    }
+
+    public static int clamp(int profile) {
+        return profile >= 0 && profile < COUNT ? profile : LINEAR;
+    }
+
+    // Duración real del trazo para la duración configurada
+    public static long duration(int profile, long duration) {
+        if (profile == FLICK) {
+            return Math.max(SwipeSettings.MIN_DURATION, duration * FLICK_DURATION_PERCENT / 100);
+        }
+        return duration;
+    }
+
+    // Escribe los puntos x,y del trazo en out y devuelve cuántos hay (sin reservar memoria).
+    // maxWobble es el desvío lateral máximo de EASED en px; los puntos quedan dentro de
+    // width x height.
+    public static int computePath(int profile, int command, float centerX, float centerY, float distance,
+                                  float maxWobble, float width, float height, float[] out) {
+        int count = computeUnclamped(clamp(profile), command, centerX, centerY, distance, maxWobble, width, out);
+        SwipeGeometry.clampToDisplay(out, count, width, height);
+        return count;
+    }
+
+    private static int computeUnclamped(int profile, int command, float centerX, float centerY, float distance,
+                                        float maxWobble, float width, float[] out) {
+        SwipeGeometry.computeSwipe(command, centerX, centerY,
+                profile == FLICK ? distance * FLICK_DISTANCE : distance, out);
+        float startY = out[SwipeGeometry.START_Y];
+        float endY = out[SwipeGeometry.END_Y];
+        float travel = endY - startY;
+
+        switch (profile) {
+            case EASED: {
+                float wobble = Math.min(distance * EASE_WOBBLE, maxWobble);
+                if (centerX + wobble > width - 1) {
+                    wobble = -wobble;
+                }
+                int n = 0;
+                out[n++] = centerX;
+                out[n++] = startY;
+                for (int i = 1; i <= EASE_STEPS; i++) {
+                    // Fuera y de vuelta al eje en cada par de pasos; el último termina en el eje
+                    out[n++] = i % 2 == 1 ? centerX + wobble : centerX;
+                    out[n++] = startY + travel * EASE_LEAD * i / EASE_STEPS;
+                }
+                out[n++] = centerX;
+                out[n++] = endY;
+                return n / 2;
+            }
+            case CURVED: {
+                float bulge = distance * CURVE_BULGE;
+                if (centerX - bulge < 0 && centerX + bulge <= width - 1) {
+                    bulge = -bulge;
+                }
+                for (int i = 0; i <= CURVE_SEGMENTS; i++) {
+                    float t = (float) i / CURVE_SEGMENTS;
+                    out[i * 2] = centerX - bulge * 4 * t * (1 - t);
+                    out[i * 2 + 1] = startY + travel * t;
+                }
+                return CURVE_SEGMENTS + 1;
+            }
+            default:
+                // computeSwipe ya dejó los dos puntos en el orden x,y,x,y
+                return 2;
+        }
+    }
+}
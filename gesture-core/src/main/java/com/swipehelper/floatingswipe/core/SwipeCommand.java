@@ -0,0 +1,60 @@
+package com.swipehelper.floatingswipe.core;
+
+// Comandos tipados que viajan del overlay al servicio de accesibilidad
+public final class SwipeCommand {
+
+    public static final int NONE = 0;
+    public static final int SWIPE_UP = 1;
+    public static final int SWIPE_DOWN = 2;
+    public static final int AUTO_ADVANCE_START = 3;
+    public static final int AUTO_ADVANCE_STOP = 4;
+    public static final int MACRO_RECORD_START = 5;
+    public static final int MACRO_RECORD_STOP = 6;
+    public static final int MACRO_PLAY_TOGGLE = 7;
+    // Mantener pulsado: scroll continuo hasta HOLD_STOP
+    public static final int HOLD_UP_START = 8;
+    public static final int HOLD_DOWN_START = 9;
+    public static final int HOLD_STOP = 10;
+    // Swipes disparados por una tecla (volumen, mando Bluetooth); se miden aparte del overlay
+    public static final int KEY_SWIPE_UP = 11;
+    public static final int KEY_SWIPE_DOWN = 12;
+
+    private SwipeCommand() {
+    }
+
+    public static int fromDirection(String direction) {
+        if ("up".equals(direction)) {
+            return SWIPE_UP;
+        } else if ("down".equals(direction)) {
+            return SWIPE_DOWN;
+        }
+        return NONE;
+    }
+
+    public static boolean isKeySwipe(int command) {
+        return command == KEY_SWIPE_UP || command == KEY_SWIPE_DOWN;
+    }
+
+    // KEY_SWIPE_UP -> SWIPE_UP, KEY_SWIPE_DOWN -> SWIPE_DOWN; el resto no cambia
+    public static int toSwipe(int command) {
+        switch (command) {
+            case KEY_SWIPE_UP:
+                return SWIPE_UP;
+            case KEY_SWIPE_DOWN:
+                return SWIPE_DOWN;
+            default:
+                return command;
+        }
+    }
+
+    public static String toDirection(int command) {
+        switch (command) {
+            case SWIPE_UP:
+                return "up";
+            case SWIPE_DOWN:
+                return "down";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Canal en proceso entre FloatingButtonService (productor) y SwipeSimulatorService (consumidor).
+// Cola circular sin bloqueos de un solo productor y un solo consumidor: el productor es siempre
+// el hilo principal (clicks del overlay y teclas filtradas por el servicio de accesibilidad)
+// y el consumidor es quien registra el servicio.
+public final class SwipeCommandChannel {
+
+    public interface Consumer {
+        void onCommand(int command, long tapNanos);
+    }
+
+    private static final int CAPACITY = 64; // potencia de 2
+    private static final int MASK = CAPACITY - 1;
+
+    private static final SwipeCommandChannel INSTANCE = new SwipeCommandChannel();
+
+    private final int[] commands = new int[CAPACITY];
+    private final long[] tapTimes = new long[CAPACITY];
+
+    // tail solo lo escribe el productor, head solo el consumidor
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile Runnable wakeup;
+
+    public static SwipeCommandChannel get() {
+        return INSTANCE;
+    }
+
+    // El consumidor se conecta con un Runnable que debe terminar llamando a drain()
+    public void attach(Runnable wakeup) {
+        this.wakeup = wakeup;
+        wakeupPending.set(false);
+    }
+
+    public void detach(Runnable wakeup) {
+        if (this.wakeup == wakeup) {
+            this.wakeup = null;
+        }
+    }
+
+    public boolean isConnected() {
+        return wakeup != null;
+    }
+
+    public boolean offer(int command, long tapNanos) {
+        Runnable target = wakeup;
+        if (target == null) {
+            return false;
+        }
+
+        long t = tail.get();
+        if (t - head.get() >= CAPACITY) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        int index = (int) (t & MASK);
+        commands[index] = command;
+        tapTimes[index] = tapNanos;
+        tail.lazySet(t + 1);
+
+        // Solo despertamos al consumidor si no hay ya un aviso pendiente
+        if (wakeupPending.compareAndSet(false, true)) {
+            target.run();
+        }
+        return true;
+    }
+
+    public int drain(Consumer consumer) {
+        wakeupPending.set(false);
+
+        long h = head.get();
+        long t = tail.get();
+        int count = 0;
+        while (h < t) {
+            int index = (int) (h & MASK);
+            int command = commands[index];
+            long tapNanos = tapTimes[index];
+            h++;
+            head.lazySet(h);
+            consumer.onCommand(command, tapNanos);
+            count++;
+        }
+        return count;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
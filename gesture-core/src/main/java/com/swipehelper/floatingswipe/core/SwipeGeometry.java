@@ -0,0 +1,50 @@
+package com.swipehelper.floatingswipe.core;
+
+// Geometría de los swipes: puntos de inicio y fin de un trazo vertical centrado en el ancla
+public final class SwipeGeometry {
+
+    public static final int START_X = 0;
+    public static final int START_Y = 1;
+    public static final int END_X = 2;
+    public static final int END_Y = 3;
+
+    private SwipeGeometry() {
+    }
+
+    // Escribe startX, startY, endX, endY en out (sin reservar memoria)
+    public static void computeSwipe(int command, float centerX, float centerY, float distance, float[] out) {
+        float half = distance / 2;
+        out[START_X] = centerX;
+        out[END_X] = centerX;
+        if (command == SwipeCommand.SWIPE_UP) {
+            // Swipe up: el dedo va de abajo hacia arriba
+            out[START_Y] = centerY + half;
+            out[END_Y] = centerY - half;
+        } else {
+            out[START_Y] = centerY - half;
+            out[END_Y] = centerY + half;
+        }
+    }
+
+    // Lleva los count puntos x,y de points dentro de la pantalla: StrokeDescription rechaza
+    // coordenadas negativas, y un ancla en el borde con una distancia larga se sale
+    public static void clampToDisplay(float[] points, int count, float width, float height) {
+        float maxX = Math.max(0f, width - 1);
+        float maxY = Math.max(0f, height - 1);
+        for (int i = 0; i < count; i++) {
+            points[i * 2] = Math.max(0f, Math.min(points[i * 2], maxX));
+            points[i * 2 + 1] = Math.max(0f, Math.min(points[i * 2 + 1], maxY));
+        }
+    }
+
+    // Inicio de cada trazo dentro de un gesto de varios trazos
+    public static long strokeStartTime(int strokeIndex, long duration, long strokeGap) {
+        return strokeIndex * (duration + strokeGap);
+    }
+
+    // Máximo de trazos que caben en un gesto según los límites de la plataforma
+    public static int maxStrokesPerGesture(int maxStrokeCount, long maxGestureDuration, long duration, long strokeGap) {
+        long byDuration = maxGestureDuration / (duration + strokeGap);
+        return (int) Math.max(1, Math.min(maxStrokeCount, byDuration));
+    }
+}
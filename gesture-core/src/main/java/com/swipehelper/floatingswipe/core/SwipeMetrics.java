@@ -0,0 +1,161 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Métricas de latencia de extremo a extremo de los swipes, compartidas en el proceso.
+// Tiempos: toque (onClick) -> recepción del comando -> dispatchGesture -> onCompleted/onCancelled.
+// Los swipes disparados por teclas se miden desde el evento de tecla en sus propios histogramas.
+// Escribe el hilo de gestos; el dump() del servicio y la notificación solo leen.
+public final class SwipeMetrics {
+
+    private static final SwipeMetrics INSTANCE = new SwipeMetrics();
+
+    public final LatencyHistogram tapToReceive = new LatencyHistogram("tap->receive");
+    public final LatencyHistogram tapToDispatch = new LatencyHistogram("tap->dispatch");
+    public final LatencyHistogram dispatchToFinish = new LatencyHistogram("dispatch->finish");
+    public final LatencyHistogram tapToComplete = new LatencyHistogram("tap->complete");
+    public final LatencyHistogram keyToReceive = new LatencyHistogram("key->receive");
+    public final LatencyHistogram keyToDispatch = new LatencyHistogram("key->dispatch");
+
+    // Precisión de la reproducción de macros: |real - programado| por comando
+    public final LatencyHistogram macroPlaybackError = new LatencyHistogram("macro playback error");
+
+    // Latencia y éxito por backend de desplazamiento
+    public final BackendStats gestureBackend = new BackendStats("gesture");
+    public final BackendStats nodeActionBackend = new BackendStats("node-action");
+
+    // Elementos por segundo: toques sueltos frente a mantener pulsado
+    public final ScrollThroughput tapThroughput = new ScrollThroughput("tap");
+    public final ScrollThroughput holdThroughput = new ScrollThroughput("hold");
+
+    private final AtomicLong completedGestures = new AtomicLong();
+    private final AtomicLong cancelledGestures = new AtomicLong();
+
+    // Coste de onAccessibilityEvent (tiempo de CPU del hilo que lo procesa). Leer el reloj de
+    // CPU también cuesta: solo se mide uno de cada EVENT_CPU_SAMPLE_PERIOD eventos y el total se
+    // estima con la media de la muestra.
+    public static final int EVENT_CPU_SAMPLE_PERIOD = 64; // potencia de 2
+    private final AtomicLong accessibilityEvents = new AtomicLong();
+    private final AtomicLong sampledEvents = new AtomicLong();
+    private final AtomicLong accessibilityEventCpuNanos = new AtomicLong();
+
+    public static SwipeMetrics get() {
+        return INSTANCE;
+    }
+
+    public void onCommandReceived(long tapNanos, long nowNanos) {
+        tapToReceive.recordNanos(nowNanos - tapNanos);
+    }
+
+    public void onGestureDispatched(long tapNanos, long nowNanos) {
+        tapToDispatch.recordNanos(nowNanos - tapNanos);
+    }
+
+    public void onKeyCommandReceived(long keyNanos, long nowNanos) {
+        keyToReceive.recordNanos(nowNanos - keyNanos);
+    }
+
+    public void onKeyGestureDispatched(long keyNanos, long nowNanos) {
+        keyToDispatch.recordNanos(nowNanos - keyNanos);
+    }
+
+    public void onGestureFinished(boolean completed, long tapNanos, long dispatchNanos, long nowNanos) {
+        dispatchToFinish.recordNanos(nowNanos - dispatchNanos);
+        if (completed) {
+            completedGestures.incrementAndGet();
+            tapToComplete.recordNanos(nowNanos - tapNanos);
+        } else {
+            cancelledGestures.incrementAndGet();
+        }
+    }
+
+    // Cuenta el evento; devuelve true si hay que medir su tiempo de CPU
+    public boolean onAccessibilityEvent() {
+        return (accessibilityEvents.incrementAndGet() & (EVENT_CPU_SAMPLE_PERIOD - 1)) == 0;
+    }
+
+    public void onAccessibilityEventSampled(long cpuNanos) {
+        sampledEvents.incrementAndGet();
+        accessibilityEventCpuNanos.addAndGet(cpuNanos);
+    }
+
+    public long getCompletedGestures() {
+        return completedGestures.get();
+    }
+
+    public long getCancelledGestures() {
+        return cancelledGestures.get();
+    }
+
+    // Texto corto para la notificación en primer plano
+    public String getNotificationSummary() {
+        long completed = completedGestures.get();
+        long cancelled = cancelledGestures.get();
+        if (completed + cancelled == 0) {
+            return null;
+        }
+        return "p50 " + LatencyHistogram.formatMillis(tapToComplete.getPercentileMicros(50))
+                + " · p99 " + LatencyHistogram.formatMillis(tapToComplete.getPercentileMicros(99))
+                + " · " + completed + " ok / " + cancelled + " canceladas";
+    }
+
+    public void dump(PrintWriter writer) {
+        writer.println("Swipe latency:");
+        StringBuilder line = new StringBuilder();
+        LatencyHistogram[] histograms = {tapToReceive, tapToDispatch, keyToReceive, keyToDispatch,
+                dispatchToFinish, tapToComplete, macroPlaybackError};
+        for (LatencyHistogram histogram : histograms) {
+            line.setLength(0);
+            line.append("  ");
+            histogram.appendSummary(line);
+            writer.println(line);
+        }
+        writer.println("  gestures completed=" + completedGestures.get()
+                + " cancelled=" + cancelledGestures.get());
+
+        writer.println("Scroll backends:");
+        BackendStats[] backends = {gestureBackend, nodeActionBackend};
+        for (BackendStats backend : backends) {
+            line.setLength(0);
+            line.append("  ");
+            backend.appendSummary(line);
+            writer.println(line);
+        }
+
+        writer.println("Scroll throughput:");
+        ScrollThroughput[] modes = {tapThroughput, holdThroughput};
+        for (ScrollThroughput mode : modes) {
+            line.setLength(0);
+            line.append("  ");
+            mode.appendSummary(line);
+            writer.println(line);
+        }
+
+        long events = accessibilityEvents.get();
+        long sampled = sampledEvents.get();
+        long avgNanos = sampled == 0 ? 0 : accessibilityEventCpuNanos.get() / sampled;
+        writer.println("Accessibility events: count=" + events + " sampled=" + sampled
+                + " cpu~" + LatencyHistogram.formatMillis(avgNanos * events / 1000)
+                + " avg=" + avgNanos + "ns");
+    }
+
+    public void reset() {
+        tapToReceive.reset();
+        tapToDispatch.reset();
+        dispatchToFinish.reset();
+        tapToComplete.reset();
+        keyToReceive.reset();
+        keyToDispatch.reset();
+        macroPlaybackError.reset();
+        gestureBackend.reset();
+        nodeActionBackend.reset();
+        tapThroughput.reset();
+        holdThroughput.reset();
+        completedGestures.set(0);
+        cancelledGestures.set(0);
+        accessibilityEvents.set(0);
+        sampledEvents.set(0);
+        accessibilityEventCpuNanos.set(0);
+    }
+}
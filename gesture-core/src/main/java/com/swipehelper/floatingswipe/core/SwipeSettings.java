@@ -0,0 +1,188 @@
+package com.swipehelper.floatingswipe.core;
+
+// Ajustes persistentes del swipe y del overlay. Inmutable: cada cambio crea una copia,
+// así se puede publicar entre hilos sin sincronización adicional.
+// El punto del swipe se guarda como fracción de la pantalla para que sobreviva a las rotaciones.
+public final class SwipeSettings {
+
+    public static final float DEFAULT_DISTANCE = 200f;
+    public static final long DEFAULT_DURATION = 100; // ms
+    public static final float MIN_DISTANCE = 50f;
+    public static final float MAX_DISTANCE = 1000f;
+    public static final long MIN_DURATION = 20; // ms
+    public static final long MAX_DURATION = 500; // ms
+    public static final float DEFAULT_HOLD_SPEED = 1500f; // px/s
+    public static final float MIN_HOLD_SPEED = 300f;
+    public static final float MAX_HOLD_SPEED = 5000f;
+    public static final long DEFAULT_AUTO_ADVANCE_INTERVAL = 8000; // ms
+    public static final long MIN_AUTO_ADVANCE_INTERVAL = 2000; // ms
+    public static final long MAX_AUTO_ADVANCE_INTERVAL = 60000; // ms
+
+    // Posición del overlay sin fijar: se usa la esquina inferior derecha
+    public static final int UNSET_POSITION = Integer.MIN_VALUE;
+
+    // Grupos de campos que cambia cada with*(), para withFields()
+    public static final int FIELD_SWIPE = 1;
+    public static final int FIELD_ANCHOR = 1 << 1;
+    public static final int FIELD_OVERLAY_POSITION = 1 << 2;
+    public static final int FIELD_ADAPTIVE = 1 << 3;
+    public static final int FIELD_HOLD_SPEED = 1 << 4;
+    public static final int FIELD_KEY_TRIGGER = 1 << 5;
+    public static final int FIELD_FLAT_OVERLAY = 1 << 6;
+    public static final int FIELD_STROKE_PROFILE = 1 << 7;
+    public static final int FIELD_AUTO_ADVANCE = 1 << 8;
+
+    public static final SwipeSettings DEFAULTS = new SwipeSettings(DEFAULT_DISTANCE, DEFAULT_DURATION,
+            Float.NaN, Float.NaN, UNSET_POSITION, UNSET_POSITION, false, DEFAULT_HOLD_SPEED, false, false, false,
+            StrokeProfile.LINEAR, DEFAULT_AUTO_ADVANCE_INTERVAL);
+
+    public final float distance;
+    public final long duration;
+    // NaN = automático (centro del contenedor de reels o de la pantalla)
+    public final float anchorFractionX;
+    public final float anchorFractionY;
+    public final int overlayX;
+    public final int overlayY;
+    // Distancia y duración son el punto de partida de AdaptiveTuner
+    public final boolean adaptive;
+    // Velocidad del scroll continuo al mantener pulsado un botón
+    public final float holdSpeed;
+    // Teclas de volumen / mando Bluetooth como disparador (filtrado de teclas en el servicio)
+    public final boolean keyTrigger;
+    // Ocultar el overlay; solo tiene efecto con keyTrigger, ver isOverlayHidden()
+    public final boolean hideOverlay;
+    // Overlay con un solo fondo (botones sin círculo propio): menos overdraw sobre el vídeo
+    public final boolean flatOverlay;
+    // Forma del trazo (StrokeProfile)
+    public final int strokeProfile;
+    // Periodo del avance automático
+    public final long autoAdvanceInterval;
+
+    public SwipeSettings(float distance, long duration, float anchorFractionX, float anchorFractionY,
+                         int overlayX, int overlayY, boolean adaptive, float holdSpeed,
+                         boolean keyTrigger, boolean hideOverlay, boolean flatOverlay, int strokeProfile,
+                         long autoAdvanceInterval) {
+        this.distance = Math.max(MIN_DISTANCE, Math.min(distance, MAX_DISTANCE));
+        this.duration = Math.max(MIN_DURATION, Math.min(duration, MAX_DURATION));
+        if (Float.isNaN(anchorFractionX) || Float.isNaN(anchorFractionY)) {
+            this.anchorFractionX = Float.NaN;
+            this.anchorFractionY = Float.NaN;
+        } else {
+            this.anchorFractionX = Math.max(0f, Math.min(anchorFractionX, 1f));
+            this.anchorFractionY = Math.max(0f, Math.min(anchorFractionY, 1f));
+        }
+        this.overlayX = overlayX;
+        this.overlayY = overlayY;
+        this.adaptive = adaptive;
+        this.holdSpeed = Math.max(MIN_HOLD_SPEED, Math.min(holdSpeed, MAX_HOLD_SPEED));
+        this.keyTrigger = keyTrigger;
+        this.hideOverlay = hideOverlay;
+        this.flatOverlay = flatOverlay;
+        this.strokeProfile = StrokeProfile.clamp(strokeProfile);
+        this.autoAdvanceInterval = Math.max(MIN_AUTO_ADVANCE_INTERVAL,
+                Math.min(autoAdvanceInterval, MAX_AUTO_ADVANCE_INTERVAL));
+    }
+
+    public boolean hasAnchor() {
+        return !Float.isNaN(anchorFractionX);
+    }
+
+    // Sin teclas el overlay es el único disparador: nunca se oculta
+    public boolean isOverlayHidden() {
+        return keyTrigger && hideOverlay;
+    }
+
+    public boolean hasOverlayPosition() {
+        return overlayX != UNSET_POSITION && overlayY != UNSET_POSITION;
+    }
+
+    public SwipeSettings withSwipe(float distance, long duration) {
+        return new SwipeSettings(distance, duration, anchorFractionX, anchorFractionY, overlayX, overlayY, adaptive,
+                holdSpeed, keyTrigger, hideOverlay, flatOverlay, strokeProfile, autoAdvanceInterval);
+    }
+
+    public SwipeSettings withAnchor(float fractionX, float fractionY) {
+        return new SwipeSettings(distance, duration, fractionX, fractionY, overlayX, overlayY, adaptive, holdSpeed,
+                keyTrigger, hideOverlay, flatOverlay, strokeProfile, autoAdvanceInterval);
+    }
+
+    public SwipeSettings withoutAnchor() {
+        return withAnchor(Float.NaN, Float.NaN);
+    }
+
+    public SwipeSettings withOverlayPosition(int x, int y) {
+        return new SwipeSettings(distance, duration, anchorFractionX, anchorFractionY, x, y, adaptive, holdSpeed,
+                keyTrigger, hideOverlay, flatOverlay, strokeProfile, autoAdvanceInterval);
+    }
+
+    public SwipeSettings withAdaptive(boolean adaptive) {
+        return new SwipeSettings(distance, duration, anchorFractionX, anchorFractionY, overlayX, overlayY, adaptive,
+                holdSpeed, keyTrigger, hideOverlay, flatOverlay, strokeProfile, autoAdvanceInterval);
+    }
+
+    public SwipeSettings withHoldSpeed(float holdSpeed) {
+        return new SwipeSettings(distance, duration, anchorFractionX, anchorFractionY, overlayX, overlayY, adaptive,
+                holdSpeed, keyTrigger, hideOverlay, flatOverlay, strokeProfile, autoAdvanceInterval);
+    }
+
+    public SwipeSettings withKeyTrigger(boolean keyTrigger, boolean hideOverlay) {
+        return new SwipeSettings(distance, duration, anchorFractionX, anchorFractionY, overlayX, overlayY, adaptive,
+                holdSpeed, keyTrigger, hideOverlay, flatOverlay, strokeProfile, autoAdvanceInterval);
+    }
+
+    public SwipeSettings withFlatOverlay(boolean flatOverlay) {
+        return new SwipeSettings(distance, duration, anchorFractionX, anchorFractionY, overlayX, overlayY, adaptive,
+                holdSpeed, keyTrigger, hideOverlay, flatOverlay, strokeProfile, autoAdvanceInterval);
+    }
+
+    public SwipeSettings withStrokeProfile(int strokeProfile) {
+        return new SwipeSettings(distance, duration, anchorFractionX, anchorFractionY, overlayX, overlayY, adaptive,
+                holdSpeed, keyTrigger, hideOverlay, flatOverlay, strokeProfile, autoAdvanceInterval);
+    }
+
+    public SwipeSettings withAutoAdvanceInterval(long autoAdvanceInterval) {
+        return new SwipeSettings(distance, duration, anchorFractionX, anchorFractionY, overlayX, overlayY, adaptive,
+                holdSpeed, keyTrigger, hideOverlay, flatOverlay, strokeProfile, autoAdvanceInterval);
+    }
+
+    // Copia con los grupos de campos indicados tomados de other y el resto de esta instancia
+    // (p. ej. cambios hechos antes de terminar la carga, aplicados encima de lo guardado)
+    public SwipeSettings withFields(SwipeSettings other, int fields) {
+        boolean swipe = (fields & FIELD_SWIPE) != 0;
+        boolean anchor = (fields & FIELD_ANCHOR) != 0;
+        boolean position = (fields & FIELD_OVERLAY_POSITION) != 0;
+        boolean keys = (fields & FIELD_KEY_TRIGGER) != 0;
+        return new SwipeSettings(
+                swipe ? other.distance : distance,
+                swipe ? other.duration : duration,
+                anchor ? other.anchorFractionX : anchorFractionX,
+                anchor ? other.anchorFractionY : anchorFractionY,
+                position ? other.overlayX : overlayX,
+                position ? other.overlayY : overlayY,
+                (fields & FIELD_ADAPTIVE) != 0 ? other.adaptive : adaptive,
+                (fields & FIELD_HOLD_SPEED) != 0 ? other.holdSpeed : holdSpeed,
+                keys ? other.keyTrigger : keyTrigger,
+                keys ? other.hideOverlay : hideOverlay,
+                (fields & FIELD_FLAT_OVERLAY) != 0 ? other.flatOverlay : flatOverlay,
+                (fields & FIELD_STROKE_PROFILE) != 0 ? other.strokeProfile : strokeProfile,
+                (fields & FIELD_AUTO_ADVANCE) != 0 ? other.autoAdvanceInterval : autoAdvanceInterval);
+    }
+
+    // Cambios que afectan a los gestos (no a la posición del overlay)
+    public boolean sameGesture(SwipeSettings other) {
+        return distance == other.distance && duration == other.duration && adaptive == other.adaptive
+                && strokeProfile == other.strokeProfile
+                && Float.compare(anchorFractionX, other.anchorFractionX) == 0
+                && Float.compare(anchorFractionY, other.anchorFractionY) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "distance=" + distance + "px duration=" + duration + "ms anchor="
+                + (hasAnchor() ? anchorFractionX + "," + anchorFractionY : "auto")
+                + " overlay=" + (hasOverlayPosition() ? overlayX + "," + overlayY : "default")
+                + " adaptive=" + adaptive + " holdSpeed=" + holdSpeed + "px/s"
+                + " keyTrigger=" + keyTrigger + " hideOverlay=" + hideOverlay + " flatOverlay=" + flatOverlay
+                + " stroke=" + StrokeProfile.name(strokeProfile) + " autoAdvance=" + autoAdvanceInterval + "ms";
+    }
+}
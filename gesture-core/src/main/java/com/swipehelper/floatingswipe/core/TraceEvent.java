@@ -0,0 +1,29 @@
+package com.swipehelper.floatingswipe.core;
+
+// Identificadores de los eventos de TraceRing y el significado de sus argumentos a y b.
+// Los valores forman parte del formato del volcado: no renumerar, solo añadir.
+public final class TraceEvent {
+
+    public static final int COMMAND_RECEIVED = 1;    // a = comando, b = µs desde el toque
+    public static final int GESTURE_DISPATCHED = 2;  // a = comando, b = trazos
+    public static final int GESTURE_FINISHED = 3;    // a = 1 completado / 0 cancelado, b = backend
+    public static final int CUSTOM_STROKE = 4;       // a = 1 completado / 0 cancelado
+    public static final int SWIPE_POSITION = 5;      // a = x px, b = y px
+    public static final int GESTURE_FAILED = 6;      // a = comando, b = trazos
+
+    // b de GESTURE_FINISHED
+    public static final int BACKEND_GESTURE = 0;
+    public static final int BACKEND_NODE_ACTION = 1;
+
+    private static final String[] NAMES = {
+            "unknown", "commandReceived", "gestureDispatched", "gestureFinished", "customStroke",
+            "swipePosition", "gestureFailed"
+    };
+
+    private TraceEvent() {
+    }
+
+    public static String name(int id) {
+        return id > 0 && id < NAMES.length ? NAMES[id] : NAMES[0];
+    }
+}
@@ -0,0 +1,109 @@
+package com.swipehelper.floatingswipe.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Registro binario de eventos de tamaño fijo para el camino caliente, en lugar de Log.d.
+// Cada evento ocupa 4 longs preasignados: cabecera (secuencia + id), tiempo monotónico y dos
+// argumentos. record() no bloquea ni reserva memoria y se puede llamar desde cualquier hilo:
+// el cursor reparte las ranuras y la cabecera se publica la última. Al llenarse se
+// sobrescriben los eventos más antiguos.
+//
+// Volcado a disco (writeTo), little-endian:
+//   cabecera: int magic 'SWTR' | short versión | short tamaño de registro
+//   registro: long tiempoNanos | int id | int reservado | long a | long b
+public final class TraceRing {
+
+    public static final int MAGIC = 0x52545753; // "SWTR"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 32;
+
+    private static final int SLOT_LONGS = 4;
+    private static final int ID_BITS = 16;
+    private static final int ID_MASK = (1 << ID_BITS) - 1;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray slots;
+    private final AtomicLong cursor = new AtomicLong();
+
+    // capacity se redondea a potencia de 2
+    public TraceRing(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicLongArray(this.capacity * SLOT_LONGS);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Eventos registrados desde el arranque, incluidos los ya sobrescritos
+    public long getRecordedCount() {
+        return cursor.get();
+    }
+
+    public void record(int id, long timeNanos, long a, long b) {
+        long sequence = cursor.getAndIncrement();
+        int base = (int) (sequence & mask) * SLOT_LONGS;
+        // Cabecera a 0 mientras se escribe: un lector concurrente descarta la ranura
+        slots.lazySet(base, 0);
+        slots.lazySet(base + 1, timeNanos);
+        slots.lazySet(base + 2, a);
+        slots.lazySet(base + 3, b);
+        slots.lazySet(base, header(sequence, id));
+    }
+
+    private static long header(long sequence, int id) {
+        // sequence + 1 para que ninguna cabecera válida valga 0
+        return ((sequence + 1) << ID_BITS) | (id & ID_MASK);
+    }
+
+    // Copia los eventos del más antiguo al más reciente. Las ranuras que se están escribiendo
+    // o que ya se sobrescribieron durante la copia se saltan. Devuelve cuántos se escribieron.
+    // Reserva un buffer propio: no usar en el camino caliente.
+    public int writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_SIZE + 128 * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) RECORD_SIZE);
+
+        long end = cursor.get();
+        long start = Math.max(0, end - capacity);
+        int written = 0;
+        for (long sequence = start; sequence < end; sequence++) {
+            int base = (int) (sequence & mask) * SLOT_LONGS;
+            long header = slots.get(base);
+            long timeNanos = slots.get(base + 1);
+            long a = slots.get(base + 2);
+            long b = slots.get(base + 3);
+            if (header == 0 || header != slots.get(base) || (header >>> ID_BITS) != sequence + 1) {
+                continue;
+            }
+            if (buffer.remaining() < RECORD_SIZE) {
+                flush(buffer, channel);
+            }
+            buffer.putLong(timeNanos);
+            buffer.putInt((int) (header & ID_MASK));
+            buffer.putInt(0);
+            buffer.putLong(a);
+            buffer.putLong(b);
+            written++;
+        }
+        flush(buffer, channel);
+        return written;
+    }
+
+    private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,120 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveTunerTest {
+
+    private AdaptiveTuner tuner;
+    private long nowMs;
+
+    @Before
+    public void setUp() {
+        // Duración ya cerca del mínimo para llegar pronto a la fase de distancia
+        tuner = new AdaptiveTuner(200f, SwipeSettings.MIN_DURATION + AdaptiveTuner.DURATION_STEP);
+    }
+
+    // Una ventana completa con el número de éxitos indicado; devuelve si hubo ajuste
+    private boolean window(int successes) {
+        boolean changed = false;
+        for (int i = 0; i < AdaptiveTuner.WINDOW; i++) {
+            nowMs += 100;
+            tuner.onDispatched();
+            if (i < successes) {
+                tuner.onScrollConfirmed(nowMs);
+                changed |= tuner.onFinished(true, nowMs);
+            } else {
+                changed |= tuner.onFinished(false, nowMs);
+            }
+        }
+        return changed;
+    }
+
+    private boolean reliableWindow() {
+        return window(AdaptiveTuner.WINDOW);
+    }
+
+    private boolean failingWindow() {
+        return window(0);
+    }
+
+    @Test
+    public void shortensDurationThenDistance() {
+        assertTrue(reliableWindow());
+        assertEquals(SwipeSettings.MIN_DURATION, tuner.getDuration());
+        assertEquals(200f, tuner.getDistance(), 0f);
+
+        // Duración en el mínimo: ahora se acorta la distancia
+        assertTrue(reliableWindow());
+        assertEquals(SwipeSettings.MIN_DURATION, tuner.getDuration());
+        assertEquals(200f - AdaptiveTuner.DISTANCE_STEP, tuner.getDistance(), 0f);
+        assertFalse(tuner.isConverged());
+    }
+
+    @Test
+    public void failedDistanceStepRevertsAndSetsFloor() {
+        reliableWindow();
+        reliableWindow();
+        reliableWindow();
+        float tooShort = tuner.getDistance();
+        float lastGood = tooShort + AdaptiveTuner.DISTANCE_STEP;
+
+        assertTrue(failingWindow());
+        assertEquals(lastGood, tuner.getDistance(), 0f);
+        assertTrue(tuner.isConverged());
+
+        // El suelo impide volver a probar la distancia que falló
+        assertFalse(reliableWindow());
+        assertEquals(lastGood, tuner.getDistance(), 0f);
+        assertTrue(tuner.isConverged());
+    }
+
+    @Test
+    public void failedDurationStepRevertsThenTriesDistance() {
+        tuner.reset(200f, 100, nowMs);
+        assertTrue(reliableWindow());
+        assertEquals(100 - AdaptiveTuner.DURATION_STEP, tuner.getDuration());
+
+        assertTrue(failingWindow());
+        assertEquals(100, tuner.getDuration());
+        assertFalse(tuner.isConverged());
+
+        // Con la duración fija en su suelo, la siguiente ventana fiable prueba menos distancia
+        assertTrue(reliableWindow());
+        assertEquals(100, tuner.getDuration());
+        assertEquals(200f - AdaptiveTuner.DISTANCE_STEP, tuner.getDistance(), 0f);
+    }
+
+    @Test
+    public void distanceNeverGoesBelowMinimum() {
+        tuner.reset(SwipeSettings.MIN_DISTANCE + AdaptiveTuner.DISTANCE_STEP, SwipeSettings.MIN_DURATION, nowMs);
+        assertTrue(reliableWindow());
+        assertEquals(SwipeSettings.MIN_DISTANCE, tuner.getDistance(), 0f);
+
+        assertFalse(reliableWindow());
+        assertEquals(SwipeSettings.MIN_DISTANCE, tuner.getDistance(), 0f);
+        assertTrue(tuner.isConverged());
+    }
+
+    @Test
+    public void failureWithoutShorteningLengthens() {
+        assertTrue(failingWindow());
+        assertEquals(200f + AdaptiveTuner.DISTANCE_STEP, tuner.getDistance(), 0f);
+        assertFalse(tuner.isConverged());
+    }
+
+    @Test
+    public void resetEntryHasNoWindowResult() {
+        reliableWindow();
+        StringBuilder summary = new StringBuilder();
+        tuner.appendSummary(summary, nowMs);
+        String[] lines = summary.toString().split("\n");
+
+        assertTrue(lines[1].endsWith("reset 200.0px/30ms"));
+        assertTrue(lines[2].endsWith("shorten-duration 200.0px/20ms 8/8"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AutoAdvanceScheduleTest {
+
+    private static final long PERIOD = 8000;
+    private static final long START = 100_000;
+
+    @Test
+    public void lateWakeupsDoNotDrift() {
+        AutoAdvanceSchedule schedule = new AutoAdvanceSchedule();
+        schedule.start(START, PERIOD);
+        assertEquals(START + PERIOD, schedule.getNextDeadlineMs());
+
+        // Cada despertar llega 300 ms tarde: los plazos siguen en ancla + k * periodo
+        long deadline = schedule.getNextDeadlineMs();
+        for (int k = 2; k <= 50; k++) {
+            deadline = schedule.onWakeup(deadline + 300);
+            assertEquals(START + k * PERIOD, deadline);
+        }
+        assertEquals(49, schedule.getWakeups());
+        assertEquals(0, schedule.getSkippedSlots());
+        assertEquals(49, schedule.getJitter().getCount());
+    }
+
+    @Test
+    public void missedSlotsAreSkipped() {
+        AutoAdvanceSchedule schedule = new AutoAdvanceSchedule();
+        schedule.start(START, PERIOD);
+
+        // Despierta en el plazo 3 (se perdieron el 1 y el 2): el siguiente es el 4
+        long next = schedule.onWakeup(START + 3 * PERIOD + 10);
+
+        assertEquals(START + 4 * PERIOD, next);
+        assertEquals(2, schedule.getSkippedSlots());
+    }
+
+    @Test
+    public void restartAnchorsAtNewStart() {
+        AutoAdvanceSchedule schedule = new AutoAdvanceSchedule();
+        schedule.start(START, PERIOD);
+        schedule.onWakeup(START + PERIOD);
+        schedule.stop(START + PERIOD + 500);
+        assertFalse(schedule.isRunning());
+
+        long restart = START + 60_000;
+        schedule.start(restart, 5000);
+
+        assertTrue(schedule.isRunning());
+        assertEquals(restart + 5000, schedule.getNextDeadlineMs());
+        assertEquals(restart + 10_000, schedule.onWakeup(restart + 5000));
+    }
+
+    @Test
+    public void wakeupsPerHourCountOnlyActiveTime() {
+        AutoAdvanceSchedule schedule = new AutoAdvanceSchedule();
+        schedule.start(0, PERIOD);
+        long deadline = schedule.getNextDeadlineMs();
+        for (int i = 0; i < 450; i++) {
+            deadline = schedule.onWakeup(deadline);
+        }
+        // 450 despertares en una hora activa; la pausa posterior no cuenta
+        schedule.stop(3_600_000);
+
+        assertEquals(450, schedule.getWakeupsPerHour(10 * 3_600_000L), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositivePeriodIsRejected() {
+        new AutoAdvanceSchedule().start(START, 0);
+    }
+}
@@ -0,0 +1,100 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+// El camino de un toque (canal -> GesturePipeline -> planificación del trazo) no debe reservar
+// memoria una vez caliente: cualquier objeto por toque acaba en pausas de GC en el teléfono.
+public class CommandPathAllocationTest {
+
+    private static final long MS = 1_000_000L;
+    private static final int WARMUP_TAPS = 50_000;
+    private static final int MEASURED_TAPS = 10_000;
+    private static final int ROUNDS = 5;
+
+    private com.sun.management.ThreadMXBean threads;
+    private SwipeCommandChannel channel;
+    private GesturePipeline pipeline;
+    private SimulatedGestureDispatcher dispatcher;
+    private SwipeCommandChannel.Consumer consumer;
+    private final float[] points = new float[StrokeProfile.MAX_POINTS * 2];
+    private float checksum;
+
+    @Before
+    public void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        channel = new SwipeCommandChannel();
+        channel.attach(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        dispatcher = new SimulatedGestureDispatcher(3, 4 * MS, 8 * MS, 100 * MS);
+        dispatcher.setCancelProbability(0.1);
+        // Como el sink del servicio: planifica el trazo de cada ráfaga antes de enviarla
+        pipeline = new GesturePipeline(new GesturePipeline.Sink() {
+            @Override
+            public boolean dispatch(int command, int strokes, long tapNanos) {
+                int profile = (int) (tapNanos / MS) % StrokeProfile.COUNT;
+                int count = StrokeProfile.computePath(profile, command, 540f, 1200f, 200f, 16f, 1080f, 2400f, points);
+                checksum += points[count * 2 - 1];
+                return dispatcher.dispatch(command, strokes);
+            }
+        }, 8, 10);
+        dispatcher.setListener(new GestureDispatcher.Listener() {
+            @Override
+            public void onGestureFinished(boolean completed) {
+                pipeline.onGestureFinished(completed);
+            }
+        });
+        consumer = new SwipeCommandChannel.Consumer() {
+            @Override
+            public void onCommand(int command, long tapNanos) {
+                pipeline.submit(command, tapNanos);
+            }
+        };
+    }
+
+    @Test
+    public void tapPathAllocatesNothingOnceWarm() {
+        long id = Thread.currentThread().getId();
+        runTaps(0, WARMUP_TAPS);
+
+        // Coste de la propia medida (normalmente 0)
+        long before = threads.getThreadAllocatedBytes(id);
+        long overhead = threads.getThreadAllocatedBytes(id) - before;
+
+        // Una compilación o desoptimización del JIT a mitad de ronda puede sumar unos bytes
+        // sueltos; una reserva por toque aparece en todas las rondas, así que vale el mínimo
+        long allocated = Long.MAX_VALUE;
+        int first = WARMUP_TAPS;
+        for (int round = 0; round < ROUNDS && allocated != 0; round++) {
+            before = threads.getThreadAllocatedBytes(id);
+            runTaps(first, MEASURED_TAPS);
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(id) - before - overhead);
+            first += MEASURED_TAPS;
+        }
+
+        assertEquals("bytes allocated over " + MEASURED_TAPS + " taps", 0, allocated);
+    }
+
+    private void runTaps(int first, int taps) {
+        long t = dispatcher.nowNanos();
+        for (int i = first; i < first + taps; i++) {
+            t += (i % 7) * 15 * MS;
+            dispatcher.advanceTo(t);
+            channel.offer(i % 3 == 0 ? SwipeCommand.SWIPE_DOWN : SwipeCommand.SWIPE_UP, t);
+            channel.drain(consumer);
+        }
+        dispatcher.runUntilIdle();
+    }
+}
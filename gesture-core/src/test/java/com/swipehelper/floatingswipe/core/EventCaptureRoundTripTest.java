@@ -0,0 +1,166 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventCaptureRoundTripTest {
+
+    private static final long BASE_NANOS = 5_000_000_000L;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void eventsSurviveRoundTrip() throws IOException {
+        File file = folder.newFile("capture.bin");
+        EventCaptureWriter writer = new EventCaptureWriter(file, BASE_NANOS);
+        CapturedEvent event = new CapturedEvent();
+        event.set(32, BASE_NANOS + 1_000, BASE_NANOS + 3_000, "com.example", "android.widget.FrameLayout");
+        event.setBounds(0, -10, 1080, 40_000);
+        writer.append(event);
+        event.set(4096, BASE_NANOS + 2_000, BASE_NANOS + 5_000, null, null);
+        writer.append(event);
+        writer.close();
+
+        EventCaptureReader reader = new EventCaptureReader(file);
+        try {
+            assertEquals(BASE_NANOS, reader.getBaseNanos());
+            CapturedEvent read = new CapturedEvent();
+            assertTrue(reader.next(read));
+            assertEquals(32, read.type);
+            assertEquals(BASE_NANOS + 1_000, read.eventNanos);
+            assertEquals(BASE_NANOS + 3_000, read.receivedNanos);
+            assertEquals("com.example", read.packageName);
+            assertEquals("android.widget.FrameLayout", read.className);
+            assertEquals(-10, read.top);
+            assertEquals(1080, read.right);
+            // Las coordenadas se recortan al rango de short
+            assertEquals(Short.MAX_VALUE, read.bottom);
+
+            assertTrue(reader.next(read));
+            assertEquals(4096, read.type);
+            assertNull(read.packageName);
+            assertNull(read.className);
+            assertEquals(0, read.right);
+            assertFalse(reader.next(read));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void backgroundFlushKeepsOrderAcrossManyBuffers() throws IOException {
+        File file = folder.newFile("capture.bin");
+        ExecutorService io = Executors.newSingleThreadExecutor();
+        // Varias vueltas a los dos buffers de 64 KB
+        int events = 20_000;
+        try {
+            EventCaptureWriter writer = new EventCaptureWriter(file, BASE_NANOS, io);
+            CapturedEvent event = new CapturedEvent();
+            for (int i = 0; i < events; i++) {
+                event.set(i, BASE_NANOS + i * 1_000L, BASE_NANOS + i * 1_000L, "pkg" + (i % 7), "cls" + (i % 3));
+                event.setBounds(i % 1000, 0, 0, 0);
+                assertTrue(writer.append(event));
+            }
+            writer.close();
+            assertEquals(events, writer.getEventCount());
+        } finally {
+            io.shutdown();
+        }
+
+        EventCaptureReader reader = new EventCaptureReader(file);
+        try {
+            CapturedEvent read = new CapturedEvent();
+            String firstPackage = null;
+            for (int i = 0; i < events; i++) {
+                assertTrue(reader.next(read));
+                assertEquals(i, read.type);
+                assertEquals(BASE_NANOS + i * 1_000L, read.eventNanos);
+                assertEquals("pkg" + (i % 7), read.packageName);
+                assertEquals(i % 1000, read.left);
+                if (i == 0) {
+                    firstPackage = read.packageName;
+                } else if (i % 7 == 0) {
+                    // Misma instancia para el mismo id
+                    assertSame(firstPackage, read.packageName);
+                }
+            }
+            assertFalse(reader.next(read));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void longStringIsTruncatedOnCharacterBoundary() throws IOException {
+        // 2 bytes por carácter: el tope de 32767 bytes caería a mitad de uno
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            builder.append('é');
+        }
+        File file = folder.newFile("capture.bin");
+        EventCaptureWriter writer = new EventCaptureWriter(file, BASE_NANOS);
+        CapturedEvent event = new CapturedEvent();
+        event.set(1, BASE_NANOS, BASE_NANOS, builder.toString(), "c");
+        writer.append(event);
+        writer.close();
+
+        EventCaptureReader reader = new EventCaptureReader(file);
+        try {
+            CapturedEvent read = new CapturedEvent();
+            assertTrue(reader.next(read));
+            assertEquals(builder.substring(0, Short.MAX_VALUE / 2), read.packageName);
+            assertEquals("c", read.className);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void utf8PrefixBacksOffContinuationBytes() {
+        byte[] euro = "a€".getBytes(StandardCharsets.UTF_8);
+        assertEquals(4, EventCaptureWriter.utf8Prefix(euro, 10));
+        assertEquals(1, EventCaptureWriter.utf8Prefix(euro, 3));
+        assertEquals(1, EventCaptureWriter.utf8Prefix(euro, 2));
+        assertEquals(1, EventCaptureWriter.utf8Prefix(euro, 1));
+    }
+
+    @Test
+    public void offsetOutOfRangeIsRejected() throws IOException {
+        File file = folder.newFile("capture.bin");
+        EventCaptureWriter writer = new EventCaptureWriter(file, BASE_NANOS);
+        CapturedEvent event = new CapturedEvent();
+        event.set(1, BASE_NANOS + EventCaptureFormat.MAX_OFFSET_NANOS + 1, BASE_NANOS, "p", "c");
+        assertFalse(writer.append(event));
+        writer.close();
+        assertEquals(0, writer.getEventCount());
+    }
+
+    @Test
+    public void foreignFileIsRejected() throws IOException {
+        File file = folder.newFile("other.bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[EventCaptureFormat.HEADER_SIZE]);
+        out.close();
+        try {
+            new EventCaptureReader(file).close();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+    }
+}
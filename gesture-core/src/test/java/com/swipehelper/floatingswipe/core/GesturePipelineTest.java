@@ -0,0 +1,182 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GesturePipelineTest {
+
+    // Sink que guarda los gestos enviados; se puede hacer fallar para probar los descartes
+    private static final class RecordingSink implements GesturePipeline.Sink {
+        final int[] commands = new int[64];
+        final int[] strokes = new int[64];
+        final long[] tapTimes = new long[64];
+        int count;
+        boolean accept = true;
+
+        @Override
+        public boolean dispatch(int command, int strokeCount, long tapNanos) {
+            if (!accept) {
+                return false;
+            }
+            commands[count] = command;
+            strokes[count] = strokeCount;
+            tapTimes[count] = tapNanos;
+            count++;
+            return true;
+        }
+    }
+
+    private RecordingSink sink;
+    private GesturePipeline pipeline;
+
+    @Before
+    public void setUp() {
+        sink = new RecordingSink();
+        pipeline = new GesturePipeline(sink, 4, 3);
+    }
+
+    @Test
+    public void firstTapIsDispatchedImmediately() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 100);
+
+        assertEquals(1, sink.count);
+        assertEquals(SwipeCommand.SWIPE_UP, sink.commands[0]);
+        assertEquals(1, sink.strokes[0]);
+        assertEquals(100, pipeline.getInFlightTapNanos());
+        assertFalse(pipeline.isIdle());
+    }
+
+    @Test
+    public void sameDirectionTapsCoalesceWhileInFlight() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 100);
+        pipeline.submit(SwipeCommand.SWIPE_UP, 200);
+        pipeline.submit(SwipeCommand.SWIPE_UP, 300);
+
+        // Nada sale hasta que termina el gesto en curso, y entonces una sola ráfaga de 2 trazos
+        assertEquals(1, sink.count);
+        assertEquals(2, pipeline.pendingStrokes());
+        assertEquals(1, pipeline.getCoalescedCount());
+
+        pipeline.onGestureFinished(true);
+        assertEquals(2, sink.count);
+        assertEquals(2, sink.strokes[1]);
+        // La ráfaga conserva el momento del primer toque
+        assertEquals(200, sink.tapTimes[1]);
+    }
+
+    @Test
+    public void coalescingStopsAtMaxStrokes() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 0);
+        for (int i = 1; i <= 5; i++) {
+            pipeline.submit(SwipeCommand.SWIPE_UP, i);
+        }
+
+        // maxStrokes = 3: los 5 pendientes quedan en ráfagas de 3 + 2
+        pipeline.onGestureFinished(true);
+        assertEquals(3, sink.strokes[1]);
+        pipeline.onGestureFinished(true);
+        assertEquals(2, sink.strokes[2]);
+        assertEquals(4, sink.tapTimes[2]);
+    }
+
+    @Test
+    public void directionChangeStartsNewBurstInOrder() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 0);
+        pipeline.submit(SwipeCommand.SWIPE_DOWN, 1);
+        pipeline.submit(SwipeCommand.SWIPE_DOWN, 2);
+        pipeline.submit(SwipeCommand.SWIPE_UP, 3);
+
+        pipeline.onGestureFinished(true);
+        pipeline.onGestureFinished(true);
+        pipeline.onGestureFinished(true);
+
+        assertEquals(3, sink.count);
+        assertEquals(SwipeCommand.SWIPE_DOWN, sink.commands[1]);
+        assertEquals(2, sink.strokes[1]);
+        assertEquals(SwipeCommand.SWIPE_UP, sink.commands[2]);
+        assertEquals(1, sink.strokes[2]);
+    }
+
+    @Test
+    public void fullQueueDropsNewBurstsButStillCoalesces() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 0);
+        // Capacidad 4 ráfagas alternando dirección para que no se fusionen
+        for (int i = 1; i <= 4; i++) {
+            pipeline.submit(i % 2 == 0 ? SwipeCommand.SWIPE_UP : SwipeCommand.SWIPE_DOWN, i);
+        }
+        pipeline.submit(SwipeCommand.SWIPE_DOWN, 5);
+        assertEquals(4, pipeline.pendingStrokes());
+        assertEquals(1, pipeline.getDroppedCount());
+
+        // Con la cola llena, un toque en la dirección de la última ráfaga aún se fusiona
+        pipeline.submit(SwipeCommand.SWIPE_UP, 6);
+        assertEquals(5, pipeline.pendingStrokes());
+        assertEquals(1, pipeline.getDroppedCount());
+    }
+
+    @Test
+    public void everyStrokeIsAccountedFor() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 0);
+        pipeline.submit(SwipeCommand.SWIPE_UP, 1);
+        pipeline.submit(SwipeCommand.SWIPE_DOWN, 2);
+        pipeline.onGestureFinished(false);
+
+        // El sink rechaza el siguiente: sus trazos cuentan como descartados
+        sink.accept = false;
+        pipeline.onGestureFinished(true);
+        sink.accept = true;
+        pipeline.submit(SwipeCommand.SWIPE_DOWN, 3);
+        pipeline.submit(SwipeCommand.SWIPE_DOWN, 4);
+        pipeline.clear();
+
+        // El gesto en curso al limpiar cuenta como cancelado y su callback tardío no suma nada
+        pipeline.onGestureFinished(true);
+        long accounted = pipeline.getCompletedCount() + pipeline.getCancelledCount() + pipeline.getDroppedCount();
+        assertEquals(5, pipeline.getQueuedCount());
+        assertEquals(5, accounted);
+        assertEquals(2, pipeline.getCancelledCount());
+        assertTrue(pipeline.isIdle());
+    }
+
+    @Test
+    public void setMaxStrokesTrimsPendingBursts() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 0);
+        pipeline.submit(SwipeCommand.SWIPE_UP, 1);
+        pipeline.submit(SwipeCommand.SWIPE_UP, 2);
+        pipeline.submit(SwipeCommand.SWIPE_UP, 3);
+
+        pipeline.setMaxStrokes(2);
+        assertEquals(2, pipeline.pendingStrokes());
+    }
+
+    @Test
+    public void pausedPipelineQueuesUntilResumed() {
+        pipeline.submit(SwipeCommand.SWIPE_UP, 0);
+        pipeline.setPaused(true);
+        pipeline.submit(SwipeCommand.SWIPE_UP, 1);
+        pipeline.submit(SwipeCommand.SWIPE_UP, 2);
+
+        // El gesto en curso termina, pero en pausa no sale el siguiente
+        pipeline.onGestureFinished(true);
+        assertEquals(1, sink.count);
+        assertFalse(pipeline.isInFlight());
+        assertEquals(2, pipeline.pendingStrokes());
+
+        pipeline.setPaused(false);
+        assertEquals(2, sink.count);
+        assertEquals(2, sink.strokes[1]);
+        assertTrue(pipeline.isInFlight());
+    }
+
+    @Test
+    public void lateFinishWithoutGestureIsIgnored() {
+        pipeline.onGestureFinished(true);
+
+        assertEquals(0, pipeline.getCompletedCount());
+        assertTrue(pipeline.isIdle());
+    }
+}
@@ -0,0 +1,122 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MacroRoundTripTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void commandsAndStrokesSurviveRoundTrip() throws IOException {
+        File file = folder.newFile("macro.bin");
+        MacroWriter writer = new MacroWriter(file);
+        MacroRecord record = new MacroRecord();
+        record.setCommand(0, SwipeCommand.SWIPE_UP);
+        writer.append(record);
+        record.setStroke(250_000_000L, 540.5f, 1600f, 540.5f, 400f, 180);
+        writer.append(record);
+        record.setCommand(900_000_000L, SwipeCommand.SWIPE_DOWN);
+        writer.append(record);
+        writer.close();
+        assertEquals(3, writer.getRecordCount());
+
+        MacroReader reader = new MacroReader(file);
+        try {
+            MacroRecord read = new MacroRecord();
+            assertTrue(reader.next(read));
+            assertEquals(0, read.offsetNanos);
+            assertEquals(SwipeCommand.SWIPE_UP, read.op);
+
+            assertTrue(reader.next(read));
+            assertEquals(250_000_000L, read.offsetNanos);
+            assertEquals(MacroFormat.OP_CUSTOM_STROKE, read.op);
+            assertEquals(180, read.durationMs);
+            assertEquals(540.5f, read.startX, 0f);
+            assertEquals(1600f, read.startY, 0f);
+            assertEquals(540.5f, read.endX, 0f);
+            assertEquals(400f, read.endY, 0f);
+
+            assertTrue(reader.next(read));
+            assertEquals(SwipeCommand.SWIPE_DOWN, read.op);
+            assertEquals(0, read.durationMs);
+            assertFalse(reader.next(read));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void recordsAcrossSeveralFlushesKeepOrder() throws IOException {
+        File file = folder.newFile("macro.bin");
+        // Más registros de los que caben en el buffer del escritor
+        int records = 1_000;
+        MacroWriter writer = new MacroWriter(file);
+        MacroRecord record = new MacroRecord();
+        for (int i = 0; i < records; i++) {
+            record.setCommand(i * 1_000_000L, i % 2 == 0 ? SwipeCommand.SWIPE_UP : SwipeCommand.SWIPE_DOWN);
+            writer.append(record);
+        }
+        writer.close();
+
+        MacroReader reader = new MacroReader(file);
+        try {
+            MacroRecord read = new MacroRecord();
+            for (int i = 0; i < records; i++) {
+                assertTrue(reader.next(read));
+                assertEquals(i * 1_000_000L, read.offsetNanos);
+                assertEquals(i % 2 == 0 ? SwipeCommand.SWIPE_UP : SwipeCommand.SWIPE_DOWN, read.op);
+            }
+            assertFalse(reader.next(read));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void truncatedLastRecordIsIgnored() throws IOException {
+        File file = folder.newFile("macro.bin");
+        MacroWriter writer = new MacroWriter(file);
+        MacroRecord record = new MacroRecord();
+        record.setCommand(0, SwipeCommand.SWIPE_UP);
+        writer.append(record);
+        writer.close();
+        // Medio registro más, como tras un cierre brusco
+        FileOutputStream out = new FileOutputStream(file, true);
+        out.write(new byte[MacroFormat.RECORD_SIZE / 2]);
+        out.close();
+
+        MacroReader reader = new MacroReader(file);
+        try {
+            MacroRecord read = new MacroRecord();
+            assertTrue(reader.next(read));
+            assertFalse(reader.next(read));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void foreignFileIsRejected() throws IOException {
+        File file = folder.newFile("other.bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[MacroFormat.HEADER_SIZE]);
+        out.close();
+        try {
+            new MacroReader(file).close();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Las mismas comprobaciones que CommandPathStressBenchmark, como pruebas que fallan en CI
+public class SimulatedGestureDispatcherTest {
+
+    private static final long MS = 1_000_000L;
+
+    private static final class CountingListener implements GestureDispatcher.Listener {
+        int completed;
+        int cancelled;
+
+        @Override
+        public void onGestureFinished(boolean ok) {
+            if (ok) {
+                completed++;
+            } else {
+                cancelled++;
+            }
+        }
+    }
+
+    @Test
+    public void gestureFinishesAfterLatencyPlusStrokes() {
+        SimulatedGestureDispatcher dispatcher = new SimulatedGestureDispatcher(1, 5 * MS, 0, 100 * MS);
+        CountingListener listener = new CountingListener();
+        dispatcher.setListener(listener);
+
+        assertTrue(dispatcher.dispatch(SwipeCommand.SWIPE_UP, 3));
+        assertEquals(305 * MS, dispatcher.nextEventNanos());
+
+        dispatcher.advanceTo(304 * MS);
+        assertTrue(dispatcher.isInFlight());
+        dispatcher.advanceTo(305 * MS);
+        assertFalse(dispatcher.isInFlight());
+        assertEquals(1, listener.completed);
+        assertEquals(Long.MAX_VALUE, dispatcher.nextEventNanos());
+    }
+
+    @Test
+    public void zeroStrokesIsRejectedWithoutCallback() {
+        SimulatedGestureDispatcher dispatcher = new SimulatedGestureDispatcher(1, MS, 0, MS);
+        CountingListener listener = new CountingListener();
+        dispatcher.setListener(listener);
+
+        assertFalse(dispatcher.dispatch(SwipeCommand.SWIPE_UP, 0));
+        dispatcher.runUntilIdle();
+        assertEquals(0, dispatcher.getDispatchedCount());
+        assertEquals(0, listener.completed + listener.cancelled);
+    }
+
+    @Test
+    public void newDispatchCancelsGestureInFlight() {
+        SimulatedGestureDispatcher dispatcher = new SimulatedGestureDispatcher(1, MS, 0, 100 * MS);
+        CountingListener listener = new CountingListener();
+        dispatcher.setListener(listener);
+
+        dispatcher.dispatch(SwipeCommand.SWIPE_UP, 1);
+        dispatcher.dispatch(SwipeCommand.SWIPE_DOWN, 1);
+        assertEquals(1, listener.cancelled);
+
+        dispatcher.runUntilIdle();
+        assertEquals(1, listener.completed);
+        assertEquals(2, dispatcher.getDispatchedCount());
+    }
+
+    @Test
+    public void clockNeverGoesBackwards() {
+        SimulatedGestureDispatcher dispatcher = new SimulatedGestureDispatcher(1, MS, 0, MS);
+        dispatcher.advanceTo(50 * MS);
+        dispatcher.advanceTo(10 * MS);
+        assertEquals(50 * MS, dispatcher.nowNanos());
+    }
+
+    @Test
+    public void sameSeedGivesSameRun() {
+        assertEquals(runStress(11, 0.3), runStress(11, 0.3));
+    }
+
+    @Test
+    public void commandPathLosesNoStrokesUnderCancelStorm() {
+        runStress(42, 0.3);
+    }
+
+    @Test
+    public void commandPathLosesNoStrokesWithoutCancels() {
+        runStress(42, 0);
+    }
+
+    // Canal -> pipeline -> dispatcher simulado; comprueba el balance de trazos y devuelve una
+    // huella del resultado para comparar ejecuciones
+    private static String runStress(long seed, double cancelProbability) {
+        final int commands = 5_000;
+        final Random random = new Random(seed);
+        final SimulatedGestureDispatcher dispatcher = new SimulatedGestureDispatcher(seed, 4 * MS, 8 * MS, 100 * MS);
+        dispatcher.setCancelProbability(cancelProbability);
+        final GesturePipeline pipeline = new GesturePipeline(new GesturePipeline.Sink() {
+            @Override
+            public boolean dispatch(int command, int strokes, long tapNanos) {
+                return dispatcher.dispatch(command, strokes);
+            }
+        }, 8, 10);
+        dispatcher.setListener(new GestureDispatcher.Listener() {
+            @Override
+            public void onGestureFinished(boolean completed) {
+                pipeline.onGestureFinished(completed);
+            }
+        });
+        SwipeCommandChannel channel = new SwipeCommandChannel();
+        channel.attach(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        SwipeCommandChannel.Consumer consumer = new SwipeCommandChannel.Consumer() {
+            @Override
+            public void onCommand(int command, long tapNanos) {
+                pipeline.submit(command, tapNanos);
+            }
+        };
+
+        long t = 0;
+        for (int i = 0; i < commands; i++) {
+            t += random.nextInt(60) * MS;
+            dispatcher.advanceTo(t);
+            channel.offer(random.nextInt(4) == 0 ? SwipeCommand.SWIPE_DOWN : SwipeCommand.SWIPE_UP, t);
+            channel.drain(consumer);
+            if (cancelProbability > 0 && random.nextInt(10) == 0) {
+                dispatcher.cancelInFlight();
+            }
+        }
+        dispatcher.runUntilIdle();
+
+        assertTrue(pipeline.isIdle());
+        assertEquals(commands, pipeline.getQueuedCount());
+        assertEquals(commands,
+                pipeline.getCompletedCount() + pipeline.getCancelledCount() + pipeline.getDroppedCount());
+        assertEquals(dispatcher.getDispatchedCount(), pipeline.getDispatchedCount());
+        assertEquals(dispatcher.getDispatchedCount(),
+                dispatcher.getCompletedCount() + dispatcher.getCancelledCount());
+        if (cancelProbability == 0) {
+            assertEquals(0, dispatcher.getCancelledCount());
+        }
+        return dispatcher.nowNanos() + "/" + pipeline.getCompletedCount() + "/" + pipeline.getCancelledCount()
+                + "/" + pipeline.getDroppedCount();
+    }
+}
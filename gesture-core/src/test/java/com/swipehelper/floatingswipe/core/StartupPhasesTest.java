@@ -0,0 +1,90 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Robolectric no funciona con AGP 3.1.4 (necesita includeAndroidResources, AGP 3.3+), así que el
+// presupuesto del arranque se prueba sobre las cuentas de StartupPhases con un reloj simulado
+public class StartupPhasesTest {
+
+    private static final long MS = 1_000_000L;
+    // Lejos de 0: una marca a 0 significa "no ha pasado"
+    private static final long T0 = 10_000 * MS;
+
+    private StartupPhases phases;
+
+    @Before
+    public void setUp() {
+        phases = new StartupPhases();
+    }
+
+    // Arranque completo con las duraciones por fase indicadas (ms desde la fase anterior)
+    private long coldStart(long create, long view, long window, long foreground, long frame) {
+        long t = T0;
+        phases.requested(t);
+        phases.serviceCreated(t += create * MS);
+        phases.mark(StartupPhases.VIEW_BUILT, t += view * MS);
+        phases.mark(StartupPhases.WINDOW_ADDED, t += window * MS);
+        phases.mark(StartupPhases.FOREGROUND, t += foreground * MS);
+        return phases.finish(t + frame * MS);
+    }
+
+    @Test
+    public void phasesAreMeasuredFromRequest() {
+        long total = coldStart(40, 12, 8, 5, 30);
+
+        assertEquals(95 * MS, total);
+        assertEquals(0, phases.offsetNanos(StartupPhases.REQUESTED));
+        assertEquals(40 * MS, phases.offsetNanos(StartupPhases.SERVICE_CREATE));
+        assertEquals(52 * MS, phases.offsetNanos(StartupPhases.VIEW_BUILT));
+        assertEquals(60 * MS, phases.offsetNanos(StartupPhases.WINDOW_ADDED));
+        assertEquals(65 * MS, phases.offsetNanos(StartupPhases.FOREGROUND));
+        assertEquals(95 * MS, phases.offsetNanos(StartupPhases.FIRST_FRAME));
+    }
+
+    @Test
+    public void typicalStartupFitsBudget() {
+        coldStart(40, 12, 8, 5, 30);
+
+        assertFalse(phases.isOverBudget(StartupPhases.BUDGET_NANOS));
+    }
+
+    @Test
+    public void slowPhaseBreaksBudget() {
+        // Inflar el layout y crear el canal en el camino crítico, como antes
+        coldStart(40, 180, 8, 60, 30);
+
+        assertTrue(phases.isOverBudget(StartupPhases.BUDGET_NANOS));
+    }
+
+    @Test
+    public void restartWithoutRequestIsMeasuredFromServiceCreate() {
+        coldStart(40, 12, 8, 5, 30);
+
+        // START_STICKY: onCreate sin pasar por MainActivity; no hereda marcas del arranque anterior
+        long t = T0 + 5_000 * MS;
+        phases.serviceCreated(t);
+        phases.mark(StartupPhases.VIEW_BUILT, t + 10 * MS);
+        long total = phases.finish(t + 50 * MS);
+
+        assertEquals(50 * MS, total);
+        assertEquals(-1, phases.offsetNanos(StartupPhases.REQUESTED));
+        assertEquals(-1, phases.offsetNanos(StartupPhases.WINDOW_ADDED));
+        assertEquals(10 * MS, phases.offsetNanos(StartupPhases.VIEW_BUILT));
+    }
+
+    @Test
+    public void appendListsEveryPhase() {
+        assertEquals(-1, phases.getLastStartupNanos());
+        coldStart(40, 12, 8, 5, 30);
+        StringBuilder line = new StringBuilder();
+        phases.append(line);
+
+        assertEquals("total=95.0ms (requested=0.0 serviceCreate=40.0 viewBuilt=52.0 windowAdded=60.0"
+                + " foreground=65.0 firstFrame=95.0)", line.toString());
+    }
+}
@@ -0,0 +1,138 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StrokeProfileTest {
+
+    private static final float WIDTH = 1080f;
+    private static final float HEIGHT = 2400f;
+    private static final float CENTER_X = 540f;
+    private static final float CENTER_Y = 1200f;
+    // Touch slop de 8 dp menos 2 dp de margen a 2.75x
+    private static final float MAX_WOBBLE = 16.5f;
+
+    private final float[] points = new float[StrokeProfile.MAX_POINTS * 2];
+
+    private float maxLateral(int count) {
+        return maxLateralFrom(CENTER_X, count);
+    }
+
+    private void assertInsideDisplay(int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(points[i * 2] >= 0f && points[i * 2] <= WIDTH - 1);
+            assertTrue(points[i * 2 + 1] >= 0f && points[i * 2 + 1] <= HEIGHT - 1);
+        }
+    }
+
+    @Test
+    public void anchorAtTopEdgeWithMaxDistanceStaysOnDisplay() {
+        // Los SeekBar de MainActivity llegan al 0%: ancla pegada arriba y distancia máxima
+        SwipeSettings settings = SwipeSettings.DEFAULTS.withAnchor(0.5f, 0f)
+                .withSwipe(SwipeSettings.MAX_DISTANCE, SwipeSettings.DEFAULT_DURATION);
+        float centerX = settings.anchorFractionX * WIDTH;
+        float centerY = settings.anchorFractionY * HEIGHT;
+
+        for (int profile = 0; profile < StrokeProfile.COUNT; profile++) {
+            for (int command = SwipeCommand.SWIPE_UP; command <= SwipeCommand.SWIPE_DOWN; command++) {
+                int count = StrokeProfile.computePath(profile, command, centerX, centerY, settings.distance,
+                        MAX_WOBBLE, WIDTH, HEIGHT, points);
+                assertInsideDisplay(count);
+            }
+        }
+    }
+
+    @Test
+    public void anchorAtBottomEdgeWithMaxDistanceStaysOnDisplay() {
+        SwipeSettings settings = SwipeSettings.DEFAULTS.withAnchor(0.5f, 1f)
+                .withSwipe(SwipeSettings.MAX_DISTANCE, SwipeSettings.DEFAULT_DURATION);
+
+        for (int profile = 0; profile < StrokeProfile.COUNT; profile++) {
+            int count = StrokeProfile.computePath(profile, SwipeCommand.SWIPE_UP, settings.anchorFractionX * WIDTH,
+                    settings.anchorFractionY * HEIGHT, settings.distance, MAX_WOBBLE, WIDTH, HEIGHT, points);
+            assertInsideDisplay(count);
+        }
+    }
+
+    private float maxLateralFrom(float axis, int count) {
+        float max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, Math.abs(points[i * 2] - axis));
+        }
+        return max;
+    }
+
+    @Test
+    public void curvedAtLeftEdgeBulgesTowardCenter() {
+        int count = StrokeProfile.computePath(StrokeProfile.CURVED, SwipeCommand.SWIPE_UP, 0f, CENTER_Y,
+                400f, MAX_WOBBLE, WIDTH, HEIGHT, points);
+
+        assertInsideDisplay(count);
+        // La forma se conserva: no se aplasta contra el borde
+        assertEquals(400f * 0.12f, maxLateralFrom(0f, count), 0.001f);
+    }
+
+    @Test
+    public void easedAtRightEdgeWobblesTowardCenter() {
+        float edge = WIDTH - 1;
+        int count = StrokeProfile.computePath(StrokeProfile.EASED, SwipeCommand.SWIPE_DOWN, edge, CENTER_Y,
+                SwipeSettings.MAX_DISTANCE, MAX_WOBBLE, WIDTH, HEIGHT, points);
+
+        assertInsideDisplay(count);
+        assertEquals(MAX_WOBBLE, maxLateralFrom(edge, count), 0f);
+    }
+
+    @Test
+    public void everyProfileStaysOnDisplayAtSideEdges() {
+        float[] edges = {0f, WIDTH - 1};
+        for (float x : edges) {
+            for (int profile = 0; profile < StrokeProfile.COUNT; profile++) {
+                for (int command = SwipeCommand.SWIPE_UP; command <= SwipeCommand.SWIPE_DOWN; command++) {
+                    int count = StrokeProfile.computePath(profile, command, x, CENTER_Y,
+                            SwipeSettings.MAX_DISTANCE, MAX_WOBBLE, WIDTH, HEIGHT, points);
+                    assertInsideDisplay(count);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void easedWobbleIsCappedAtLongDistances() {
+        int count = StrokeProfile.computePath(StrokeProfile.EASED, SwipeCommand.SWIPE_UP, CENTER_X, CENTER_Y,
+                SwipeSettings.MAX_DISTANCE, MAX_WOBBLE, WIDTH, HEIGHT, points);
+
+        assertEquals(MAX_WOBBLE, maxLateral(count), 0f);
+    }
+
+    @Test
+    public void easedWobbleScalesBelowCap() {
+        int count = StrokeProfile.computePath(StrokeProfile.EASED, SwipeCommand.SWIPE_UP, CENTER_X, CENTER_Y,
+                SwipeSettings.MIN_DISTANCE, MAX_WOBBLE, WIDTH, HEIGHT, points);
+
+        assertEquals(SwipeSettings.MIN_DISTANCE * 0.1f, maxLateral(count), 0.001f);
+    }
+
+    @Test
+    public void easedEndsOnAxisAtFullDistance() {
+        int count = StrokeProfile.computePath(StrokeProfile.EASED, SwipeCommand.SWIPE_UP, CENTER_X, CENTER_Y,
+                400f, MAX_WOBBLE, WIDTH, HEIGHT, points);
+
+        assertEquals(CENTER_X, points[(count - 1) * 2], 0f);
+        assertEquals(400f, Math.abs(points[(count - 1) * 2 + 1] - points[1]), 0.001f);
+    }
+
+    @Test
+    public void otherProfilesIgnoreWobble() {
+        int linear = StrokeProfile.computePath(StrokeProfile.LINEAR, SwipeCommand.SWIPE_DOWN, CENTER_X, CENTER_Y,
+                400f, MAX_WOBBLE, WIDTH, HEIGHT, points);
+        assertEquals(2, linear);
+        assertEquals(0f, maxLateral(linear), 0f);
+
+        int curved = StrokeProfile.computePath(StrokeProfile.CURVED, SwipeCommand.SWIPE_DOWN, CENTER_X, CENTER_Y,
+                400f, 0f, WIDTH, HEIGHT, points);
+        assertEquals(StrokeProfile.MAX_POINTS, curved);
+        assertTrue(maxLateral(curved) > 0f);
+    }
+}
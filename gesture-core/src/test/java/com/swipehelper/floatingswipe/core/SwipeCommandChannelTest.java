@@ -0,0 +1,158 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SwipeCommandChannelTest {
+
+    private SwipeCommandChannel channel;
+    private final AtomicInteger wakeups = new AtomicInteger();
+    private final Runnable wakeup = new Runnable() {
+        @Override
+        public void run() {
+            wakeups.incrementAndGet();
+        }
+    };
+
+    // Guarda lo recibido en orden
+    private static final class Recorder implements SwipeCommandChannel.Consumer {
+        final int[] commands;
+        final long[] tapTimes;
+        int count;
+
+        Recorder(int capacity) {
+            commands = new int[capacity];
+            tapTimes = new long[capacity];
+        }
+
+        @Override
+        public void onCommand(int command, long tapNanos) {
+            commands[count] = command;
+            tapTimes[count] = tapNanos;
+            count++;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        channel = new SwipeCommandChannel();
+        channel.attach(wakeup);
+    }
+
+    @Test
+    public void drainKeepsOfferOrder() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(channel.offer(i % 2 == 0 ? SwipeCommand.SWIPE_UP : SwipeCommand.SWIPE_DOWN, 1000 + i));
+        }
+        Recorder recorder = new Recorder(10);
+        assertEquals(10, channel.drain(recorder));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i % 2 == 0 ? SwipeCommand.SWIPE_UP : SwipeCommand.SWIPE_DOWN, recorder.commands[i]);
+            assertEquals(1000 + i, recorder.tapTimes[i]);
+        }
+        assertEquals(0, channel.drain(recorder));
+    }
+
+    @Test
+    public void offerWithoutConsumerIsRejected() {
+        channel.detach(wakeup);
+        assertFalse(channel.isConnected());
+        assertFalse(channel.offer(SwipeCommand.SWIPE_UP, 1));
+        assertEquals(0, channel.getDroppedCount());
+    }
+
+    @Test
+    public void fullRingDropsAndCountsInsteadOfOverwriting() {
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (channel.offer(SwipeCommand.SWIPE_UP, i)) {
+                accepted++;
+            }
+        }
+        assertEquals(64, accepted);
+        assertEquals(36, channel.getDroppedCount());
+
+        // Los aceptados siguen intactos: del 0 al 63
+        Recorder recorder = new Recorder(100);
+        assertEquals(64, channel.drain(recorder));
+        assertEquals(0, recorder.tapTimes[0]);
+        assertEquals(63, recorder.tapTimes[63]);
+    }
+
+    @Test
+    public void wakesConsumerOncePerDrain() {
+        channel.offer(SwipeCommand.SWIPE_UP, 1);
+        channel.offer(SwipeCommand.SWIPE_UP, 2);
+        channel.offer(SwipeCommand.SWIPE_UP, 3);
+        assertEquals(1, wakeups.get());
+
+        channel.drain(new Recorder(3));
+        channel.offer(SwipeCommand.SWIPE_DOWN, 4);
+        assertEquals(2, wakeups.get());
+    }
+
+    // Productor y consumidor en hilos distintos: todo lo aceptado llega una vez y en orden
+    @Test(timeout = 30_000)
+    public void concurrentProducerLosesNothing() throws InterruptedException {
+        final int total = 200_000;
+        final Recorder recorder = new Recorder(total);
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (recorder.count < total) {
+                    if (channel.drain(recorder) == 0) {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        consumer.start();
+
+        long rejected = 0;
+        for (int i = 0; i < total; i++) {
+            // Con la cola llena se reintenta: el rechazo cuenta como descartado, no se pierde nada
+            while (!channel.offer(SwipeCommand.SWIPE_UP, i)) {
+                rejected++;
+                Thread.yield();
+            }
+        }
+        consumer.join();
+
+        assertEquals(total, recorder.count);
+        for (int i = 0; i < total; i++) {
+            assertEquals(i, recorder.tapTimes[i]);
+        }
+        assertEquals(rejected, channel.getDroppedCount());
+    }
+
+    // Toque -> consumidor sin pasar por system_server: muy por debajo de un milisegundo
+    @Test
+    public void tapToConsumeIsSubMillisecond() {
+        final long[] latencies = new long[10_000];
+        SwipeCommandChannel.Consumer consumer = new SwipeCommandChannel.Consumer() {
+            int index;
+
+            @Override
+            public void onCommand(int command, long tapNanos) {
+                latencies[index++ % latencies.length] = System.nanoTime() - tapNanos;
+            }
+        };
+        // Calentamiento del JIT y medición
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < latencies.length; i++) {
+                channel.offer(SwipeCommand.SWIPE_UP, System.nanoTime());
+                channel.drain(consumer);
+            }
+        }
+        Arrays.sort(latencies);
+        long median = latencies[latencies.length / 2];
+        assertTrue("median tap-to-consume " + median + " ns", median < 1_000_000L);
+    }
+}
@@ -0,0 +1,85 @@
+package com.swipehelper.floatingswipe.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SwipeSettingsTest {
+
+    // Lo que SettingsStore leería del disco
+    private static final SwipeSettings STORED = new SwipeSettings(450f, 250, 0.3f, 0.6f, 120, 900, true, 2500f,
+            true, true, true, StrokeProfile.EASED, 15000);
+
+    @Test
+    public void editBeforeLoadKeepsOtherStoredFields() {
+        // Arrastre del overlay antes de que termine la carga: parte de DEFAULTS
+        SwipeSettings edited = SwipeSettings.DEFAULTS.withOverlayPosition(10, 20);
+
+        SwipeSettings merged = STORED.withFields(edited, SwipeSettings.FIELD_OVERLAY_POSITION);
+
+        assertEquals(10, merged.overlayX);
+        assertEquals(20, merged.overlayY);
+        assertEquals(450f, merged.distance, 0f);
+        assertEquals(250, merged.duration);
+        assertEquals(0.3f, merged.anchorFractionX, 0f);
+        assertEquals(0.6f, merged.anchorFractionY, 0f);
+        assertTrue(merged.adaptive);
+        assertEquals(2500f, merged.holdSpeed, 0f);
+        assertTrue(merged.keyTrigger);
+        assertTrue(merged.hideOverlay);
+        assertTrue(merged.flatOverlay);
+        assertEquals(StrokeProfile.EASED, merged.strokeProfile);
+        assertEquals(15000, merged.autoAdvanceInterval);
+    }
+
+    @Test
+    public void severalEditsBeforeLoadAreAllApplied() {
+        SwipeSettings edited = SwipeSettings.DEFAULTS.withSwipe(300f, 80).withoutAnchor().withAdaptive(false);
+        int fields = SwipeSettings.FIELD_SWIPE | SwipeSettings.FIELD_ANCHOR | SwipeSettings.FIELD_ADAPTIVE;
+
+        SwipeSettings merged = STORED.withFields(edited, fields);
+
+        assertEquals(300f, merged.distance, 0f);
+        assertEquals(80, merged.duration);
+        assertFalse(merged.hasAnchor());
+        assertFalse(merged.adaptive);
+        assertEquals(120, merged.overlayX);
+        assertEquals(2500f, merged.holdSpeed, 0f);
+        assertEquals(StrokeProfile.EASED, merged.strokeProfile);
+    }
+
+    @Test
+    public void autoAdvanceIntervalIsClampedAndMerged() {
+        assertEquals(SwipeSettings.MIN_AUTO_ADVANCE_INTERVAL,
+                SwipeSettings.DEFAULTS.withAutoAdvanceInterval(0).autoAdvanceInterval);
+        assertEquals(SwipeSettings.MAX_AUTO_ADVANCE_INTERVAL,
+                SwipeSettings.DEFAULTS.withAutoAdvanceInterval(Long.MAX_VALUE).autoAdvanceInterval);
+
+        SwipeSettings edited = SwipeSettings.DEFAULTS.withAutoAdvanceInterval(5000);
+        SwipeSettings merged = STORED.withFields(edited, SwipeSettings.FIELD_AUTO_ADVANCE);
+
+        assertEquals(5000, merged.autoAdvanceInterval);
+        assertEquals(450f, merged.distance, 0f);
+    }
+
+    @Test
+    public void noEditsBeforeLoadKeepsStored() {
+        SwipeSettings merged = STORED.withFields(SwipeSettings.DEFAULTS, 0);
+
+        assertEquals(STORED.toString(), merged.toString());
+    }
+
+    @Test
+    public void everyFieldGroupIsCovered() {
+        int all = SwipeSettings.FIELD_SWIPE | SwipeSettings.FIELD_ANCHOR | SwipeSettings.FIELD_OVERLAY_POSITION
+                | SwipeSettings.FIELD_ADAPTIVE | SwipeSettings.FIELD_HOLD_SPEED | SwipeSettings.FIELD_KEY_TRIGGER
+                | SwipeSettings.FIELD_FLAT_OVERLAY | SwipeSettings.FIELD_STROKE_PROFILE
+                | SwipeSettings.FIELD_AUTO_ADVANCE;
+
+        SwipeSettings merged = SwipeSettings.DEFAULTS.withFields(STORED, all);
+
+        assertEquals(STORED.toString(), merged.toString());
+    }
+}